@@ -8,8 +8,14 @@ import com.guythatlives.bedwarsg.map.MapManager;
 import com.guythatlives.bedwarsg.party.PartyManager;
 import com.guythatlives.bedwarsg.shop.ShopManager;
 import com.guythatlives.bedwarsg.stats.StatsManager;
+import com.guythatlives.bedwarsg.task.TimerService;
+import com.guythatlives.bedwarsg.task.WorkExecutor;
 import com.guythatlives.bedwarsg.world.WorldManager;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
 
 public class BedwarsG extends JavaPlugin {
 
@@ -23,6 +29,17 @@ public class BedwarsG extends JavaPlugin {
     private StatsManager statsManager;
     private ConfigManager configManager;
     private WorldManager worldManager;
+    private TimerService timerService;
+    private WorkExecutor workExecutor;
+
+    public BedwarsG() {
+        super();
+    }
+
+    // Used by MockBukkit, which loads the plugin without a plugin class loader
+    protected BedwarsG(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
 
     @Override
     public void onEnable() {
@@ -35,6 +52,10 @@ public class BedwarsG extends JavaPlugin {
         configManager.loadConfigs();
 
         // Initialize managers
+        timerService = new TimerService(this);
+        timerService.start();
+        workExecutor = new WorkExecutor(this);
+        workExecutor.start();
         worldManager = new WorldManager(this);
         mapManager = new MapManager(this);
         arenaManager = new ArenaManager(this);
@@ -61,6 +82,11 @@ public class BedwarsG extends JavaPlugin {
             gameManager.endAllGames();
         }
 
+        // Finishes the stats flushes queued by the games that were just ended
+        if (workExecutor != null) {
+            workExecutor.stop();
+        }
+
         // Save all data
         if (statsManager != null) {
             statsManager.saveAll();
@@ -73,6 +99,11 @@ public class BedwarsG extends JavaPlugin {
         // Clean up all game worlds
         if (worldManager != null) {
             worldManager.deleteAllGameWorlds();
+            worldManager.shutdown();
+        }
+
+        if (timerService != null) {
+            timerService.stop();
         }
 
         getLogger().info("BedwarsG has been disabled!");
@@ -93,6 +124,9 @@ public class BedwarsG extends JavaPlugin {
         getServer().getPluginManager().registerEvents(new PlayerQuitListener(this), this);
         getServer().getPluginManager().registerEvents(new BlockBreakListener(this), this);
         getServer().getPluginManager().registerEvents(new BlockPlaceListener(this), this);
+        getServer().getPluginManager().registerEvents(new ExplosionListener(this), this);
+        getServer().getPluginManager().registerEvents(new BlockChangeListener(this), this);
+        getServer().getPluginManager().registerEvents(new GeneratorListener(this), this);
         getServer().getPluginManager().registerEvents(new PlayerDeathListener(this), this);
         getServer().getPluginManager().registerEvents(new EntityDamageListener(this), this);
         getServer().getPluginManager().registerEvents(new PlayerInteractListener(this), this);
@@ -134,4 +168,12 @@ public class BedwarsG extends JavaPlugin {
     public WorldManager getWorldManager() {
         return worldManager;
     }
+
+    public TimerService getTimerService() {
+        return timerService;
+    }
+
+    public WorkExecutor getWorkExecutor() {
+        return workExecutor;
+    }
 }
@@ -1,7 +1,15 @@
 package com.guythatlives.bedwarsg.arena;
 
 import com.guythatlives.bedwarsg.BedwarsG;
+import com.guythatlives.bedwarsg.game.Game;
+import com.guythatlives.bedwarsg.game.GamePhase;
 import com.guythatlives.bedwarsg.map.BedwarsMap;
+import com.guythatlives.bedwarsg.util.LongHashSet;
+import com.guythatlives.bedwarsg.world.ArenaInstance;
+import com.guythatlives.bedwarsg.world.BlockJournal;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 
 import java.util.*;
@@ -21,6 +29,12 @@ public class Arena {
     private int countdown;
     private int gameTimer;
     private String gameWorldName;
+    private BlockJournal journal;
+    private ArenaInstance instance;
+    private Set<Long> pinnedChunks;
+    private BedIndex bedIndex;
+    private LongHashSet placedBlocks;
+    private final GamePhase[] phases;
 
     public Arena(String name, BedwarsMap map, GameMode gameMode, BedwarsG plugin) {
         this.name = name;
@@ -33,6 +47,8 @@ public class Arena {
         this.playerTeams = new HashMap<>();
 
         initializeTeams();
+        this.phases = GamePhase.compile(plugin.getConfigManager().getConfig().getConfigurationSection("phases"),
+                plugin.getLogger());
     }
 
     private void initializeTeams() {
@@ -50,15 +66,27 @@ public class Arena {
         players.put(player.getUniqueId(), player);
         assignToTeam(player);
         plugin.getArenaManager().setPlayerArena(player, this);
+
+        Game game = state == ArenaState.RUNNING ? plugin.getGameManager().getGame(this) : null;
+        if (game != null) {
+            game.handleJoin(player);
+        }
     }
 
     public void removePlayer(Player player) {
+        Game game = state == ArenaState.RUNNING ? plugin.getGameManager().getGame(this) : null;
+
         players.remove(player.getUniqueId());
         BedwarsTeam team = playerTeams.remove(player.getUniqueId());
         if (team != null) {
             team.removePlayer(player);
         }
         plugin.getArenaManager().setPlayerArena(player, null);
+
+        // Told only once the player is gone, a leave that decides the game must not count them in it
+        if (game != null) {
+            game.handleLeave(player, team);
+        }
     }
 
     private void assignToTeam(Player player) {
@@ -78,6 +106,26 @@ public class Arena {
         }
     }
 
+    public Location toGameLocation(Location template) {
+        World world = gameWorldName != null ? Bukkit.getWorld(gameWorldName) : null;
+        if (template == null || world == null) {
+            return null;
+        }
+
+        // Map locations are stored in template coordinates, instances in a shared world sit at an offset
+        int offsetX = instance != null ? instance.getOffsetX() : 0;
+        int offsetZ = instance != null ? instance.getOffsetZ() : 0;
+        return new Location(world, template.getX() + offsetX, template.getY(), template.getZ() + offsetZ,
+                template.getYaw(), template.getPitch());
+    }
+
+    public boolean isInArena(Location location) {
+        if (gameWorldName == null || !location.getWorld().getName().equals(gameWorldName)) {
+            return false;
+        }
+        return instance == null || instance.getBounds().contains(location.getBlockX(), location.getBlockZ());
+    }
+
     public boolean canStart() {
         return players.size() >= map.getMinPlayers();
     }
@@ -173,4 +221,48 @@ public class Arena {
     public void setGameWorldName(String gameWorldName) {
         this.gameWorldName = gameWorldName;
     }
+
+    public BlockJournal getJournal() {
+        return journal;
+    }
+
+    public void setJournal(BlockJournal journal) {
+        this.journal = journal;
+    }
+
+    public ArenaInstance getInstance() {
+        return instance;
+    }
+
+    public void setInstance(ArenaInstance instance) {
+        this.instance = instance;
+    }
+
+    public GamePhase[] getPhases() {
+        return phases;
+    }
+
+    public BedIndex getBedIndex() {
+        return bedIndex;
+    }
+
+    public void setBedIndex(BedIndex bedIndex) {
+        this.bedIndex = bedIndex;
+    }
+
+    public LongHashSet getPlacedBlocks() {
+        return placedBlocks;
+    }
+
+    public void setPlacedBlocks(LongHashSet placedBlocks) {
+        this.placedBlocks = placedBlocks;
+    }
+
+    public Set<Long> getPinnedChunks() {
+        return pinnedChunks;
+    }
+
+    public void setPinnedChunks(Set<Long> pinnedChunks) {
+        this.pinnedChunks = pinnedChunks;
+    }
 }
@@ -2,6 +2,7 @@ package com.guythatlives.bedwarsg.arena;
 
 import com.guythatlives.bedwarsg.BedwarsG;
 import com.guythatlives.bedwarsg.map.BedwarsMap;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
 import java.util.*;
@@ -32,6 +33,15 @@ public class ArenaManager {
         return arenas.get(name);
     }
 
+    public Arena getArenaAt(Location location) {
+        for (Arena arena : arenas.values()) {
+            if (arena.isInArena(location)) {
+                return arena;
+            }
+        }
+        return null;
+    }
+
     public Arena getPlayerArena(Player player) {
         return playerArenas.get(player.getUniqueId());
     }
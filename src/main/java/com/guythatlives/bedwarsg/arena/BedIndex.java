@@ -0,0 +1,76 @@
+package com.guythatlives.bedwarsg.arena;
+
+import com.guythatlives.bedwarsg.util.BlockPositions;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.type.Bed;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+public class BedIndex {
+
+    private static final Set<Material> BED_MATERIALS = EnumSet.of(
+            Material.WHITE_BED, Material.ORANGE_BED, Material.MAGENTA_BED, Material.LIGHT_BLUE_BED,
+            Material.YELLOW_BED, Material.LIME_BED, Material.PINK_BED, Material.GRAY_BED,
+            Material.LIGHT_GRAY_BED, Material.CYAN_BED, Material.PURPLE_BED, Material.BLUE_BED,
+            Material.BROWN_BED, Material.GREEN_BED, Material.RED_BED, Material.BLACK_BED);
+
+    // Two halves per team, a handful of entries is faster to scan than to hash
+    private final long[] positions;
+    private final BedwarsTeam[] teams;
+    private final int size;
+
+    private BedIndex(long[] positions, BedwarsTeam[] teams, int size) {
+        this.positions = positions;
+        this.teams = teams;
+        this.size = size;
+    }
+
+    public static BedIndex build(Arena arena) {
+        Map<String, BedwarsTeam> arenaTeams = arena.getTeams();
+        long[] positions = new long[arenaTeams.size() * 2];
+        BedwarsTeam[] teams = new BedwarsTeam[positions.length];
+        int size = 0;
+
+        for (BedwarsTeam team : arenaTeams.values()) {
+            Location location = arena.toGameLocation(arena.getMap().getBed(team.getColor()));
+            if (location == null) {
+                continue;
+            }
+
+            Block block = location.getBlock();
+            positions[size] = BlockPositions.pack(block);
+            teams[size++] = team;
+
+            if (isBed(block.getType())) {
+                Bed bed = (Bed) block.getBlockData();
+                BlockFace towardsOtherHalf = bed.getPart() == Bed.Part.HEAD ? bed.getFacing().getOppositeFace() : bed.getFacing();
+                positions[size] = BlockPositions.pack(block.getRelative(towardsOtherHalf));
+                teams[size++] = team;
+            }
+        }
+
+        return new BedIndex(positions, teams, size);
+    }
+
+    public static boolean isBed(Material material) {
+        return BED_MATERIALS.contains(material);
+    }
+
+    public BedwarsTeam getTeam(long position) {
+        for (int i = 0; i < size; i++) {
+            if (positions[i] == position) {
+                return teams[i];
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -13,6 +13,7 @@ public class BedwarsTeam {
     private final Set<UUID> players;
     private boolean bedAlive;
     private boolean eliminated;
+    private int alivePlayers;
 
     public BedwarsTeam(String color, int maxSize) {
         this.color = color;
@@ -78,6 +79,14 @@ public class BedwarsTeam {
         this.eliminated = eliminated;
     }
 
+    public int getAlivePlayers() {
+        return alivePlayers;
+    }
+
+    public void setAlivePlayers(int alivePlayers) {
+        this.alivePlayers = alivePlayers;
+    }
+
     public boolean isEmpty() {
         return players.isEmpty();
     }
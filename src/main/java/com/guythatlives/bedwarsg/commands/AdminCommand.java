@@ -4,13 +4,22 @@ import com.guythatlives.bedwarsg.BedwarsG;
 import com.guythatlives.bedwarsg.arena.Arena;
 import com.guythatlives.bedwarsg.arena.ArenaState;
 import com.guythatlives.bedwarsg.arena.GameMode;
+import com.guythatlives.bedwarsg.game.AdmissionController;
+import com.guythatlives.bedwarsg.game.Game;
+import com.guythatlives.bedwarsg.game.GamePhase;
+import com.guythatlives.bedwarsg.map.ArenaBounds;
 import com.guythatlives.bedwarsg.map.BedwarsMap;
+import com.guythatlives.bedwarsg.world.SharedWorld;
+import com.guythatlives.bedwarsg.world.TemplateCache;
+import com.guythatlives.bedwarsg.world.WorldDeletionQueue;
+import com.guythatlives.bedwarsg.world.WorldPool;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class AdminCommand implements CommandExecutor {
@@ -61,6 +70,12 @@ public class AdminCommand implements CommandExecutor {
             case "addgen":
                 handleAddGenerator(player, args);
                 break;
+            case "setbounds":
+                handleSetBounds(player, args);
+                break;
+            case "setpool":
+                handleSetPool(player, args);
+                break;
             case "enable":
                 handleEnableMap(player, args);
                 break;
@@ -76,6 +91,9 @@ public class AdminCommand implements CommandExecutor {
             case "games":
                 handleGames(player);
                 break;
+            case "worlds":
+                handleWorlds(player);
+                break;
             case "teleport":
             case "tp":
                 handleTeleport(player, args);
@@ -193,6 +211,64 @@ public class AdminCommand implements CommandExecutor {
         player.sendMessage(plugin.getConfigManager().getMessage("admin.generator-added", placeholders));
     }
 
+    private void handleSetBounds(Player player, String[] args) {
+        if (args.length < 3 || (args.length < 6 && !args[2].equalsIgnoreCase("clear"))) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cUsage: /bwadmin setbounds <map> <x1> <z1> <x2> <z2>|clear");
+            return;
+        }
+
+        String mapName = args[1];
+        BedwarsMap map = plugin.getMapManager().getMap(mapName);
+        if (map == null) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cMap not found!");
+            return;
+        }
+
+        if (args[2].equalsIgnoreCase("clear")) {
+            map.setBounds(null);
+            plugin.getMapManager().saveMap(map);
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§aBounds cleared for " + mapName);
+            return;
+        }
+
+        try {
+            map.setBounds(new ArenaBounds(Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                    Integer.parseInt(args[4]), Integer.parseInt(args[5])));
+        } catch (NumberFormatException e) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cInvalid coordinates!");
+            return;
+        }
+
+        plugin.getMapManager().saveMap(map);
+        player.sendMessage(plugin.getConfigManager().getPrefix() + "§aBounds for " + mapName + " set to " + map.getBounds());
+    }
+
+    private void handleSetPool(Player player, String[] args) {
+        if (args.length < 3) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cUsage: /bwadmin setpool <map> <size>");
+            return;
+        }
+
+        String mapName = args[1];
+        BedwarsMap map = plugin.getMapManager().getMap(mapName);
+        if (map == null) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cMap not found!");
+            return;
+        }
+
+        int size;
+        try {
+            size = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cInvalid pool size!");
+            return;
+        }
+
+        map.setPoolSize(Math.max(0, size));
+        plugin.getMapManager().saveMap(map);
+        player.sendMessage(plugin.getConfigManager().getPrefix() + "§aWorld pool size for " + mapName + " set to " + map.getPoolSize());
+    }
+
     private void handleEnableMap(Player player, String[] args) {
         if (args.length < 2) {
             player.sendMessage(plugin.getConfigManager().getPrefix() + "§cUsage: /bwadmin enable <map>");
@@ -278,12 +354,14 @@ public class AdminCommand implements CommandExecutor {
         String mapName = args[1];
         String worldName = player.getWorld().getName();
 
-        boolean success = plugin.getWorldManager().saveMapWorld(mapName, worldName);
-        if (success) {
-            player.sendMessage(plugin.getConfigManager().getPrefix() + "§aMap world saved: " + mapName);
-        } else {
-            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cFailed to save map world!");
-        }
+        player.sendMessage(plugin.getConfigManager().getPrefix() + "§eSaving map world: " + mapName + "...");
+        plugin.getWorldManager().saveMapWorld(mapName, worldName, success -> {
+            if (success) {
+                player.sendMessage(plugin.getConfigManager().getPrefix() + "§aMap world saved: " + mapName);
+            } else {
+                player.sendMessage(plugin.getConfigManager().getPrefix() + "§cFailed to save map world!");
+            }
+        });
     }
 
     private void handleGames(Player player) {
@@ -297,12 +375,52 @@ public class AdminCommand implements CommandExecutor {
                 player.sendMessage("  §7Players: §e" + arena.getPlayers().size());
                 player.sendMessage("  §7World: §e" + arena.getGameWorldName());
                 player.sendMessage("  §7Time: §e" + formatTime(arena.getGameTimer()));
+
+                Game game = plugin.getGameManager().getGame(arena);
+                GamePhase[] phases = arena.getPhases();
+                int next = game != null ? game.getPhaseCursor() : phases.length;
+                for (int i = next; i < Math.min(next + 3, phases.length); i++) {
+                    player.sendMessage("  §7Next: §b" + phases[i].getName() + " §7in §e" +
+                            formatTime(Math.max(0, phases[i].getTime() - arena.getGameTimer())));
+                }
             }
         }
 
         if (count == 0) {
             player.sendMessage("§7No games currently running");
         }
+
+        AdmissionController admission = plugin.getGameManager().getAdmissionController();
+        player.sendMessage(String.format("§7Tick time: §e%.1f ms §7Join queue: §e%d §7Worlds being created: §e%d",
+                admission.getAverageTickMillis(), admission.getQueueSize(), admission.getCreatingWorlds()));
+    }
+
+    private void handleWorlds(Player player) {
+        WorldPool pool = plugin.getWorldManager().getWorldPool();
+
+        player.sendMessage("§8§m----------§r §cWorld Pools §8§m----------");
+        for (BedwarsMap map : plugin.getMapManager().getMaps().values()) {
+            player.sendMessage("§e" + map.getName() + " §7- Ready: §a" + pool.getReadyCount(map.getName()) +
+                    "§7/§a" + pool.getTargetSize(map) + " §7Hits: §a" + pool.getHits(map.getName()) +
+                    " §7Misses: §c" + pool.getMisses(map.getName()));
+        }
+        player.sendMessage("§7Active game worlds: §e" + plugin.getWorldManager().getActiveGameWorlds().size() +
+                " §7Clone strategy: §e" + plugin.getWorldManager().getWorldCloner().getStrategy());
+
+        for (Map.Entry<String, List<SharedWorld>> entry : plugin.getWorldManager().getSharedWorlds().entrySet()) {
+            for (SharedWorld shared : entry.getValue()) {
+                player.sendMessage("§7Shared world §e" + shared.getWorldName() + " §7(" + entry.getKey() + "): §a" +
+                        shared.getUsedCount() + "§7/§a" + shared.getCapacity() + " §7instances");
+            }
+        }
+
+        TemplateCache templateCache = plugin.getWorldManager().getTemplateCache();
+        player.sendMessage("§7Template cache: §e" + templateCache.getCachedCount() + " maps§7, §e" +
+                (templateCache.getUsedBytes() / (1024 * 1024)) + "§7/§e" + (templateCache.getMaxBytes() / (1024 * 1024)) + " MB");
+
+        WorldDeletionQueue deletionQueue = plugin.getWorldManager().getDeletionQueue();
+        player.sendMessage("§7Deletion queue: §e" + deletionQueue.getQueueDepth() + " §7Reclaimed: §e" +
+                (deletionQueue.getBytesReclaimed() / (1024 * 1024)) + " MB");
     }
 
     private void handleTeleport(Player player, String[] args) {
@@ -336,7 +454,7 @@ public class AdminCommand implements CommandExecutor {
             return;
         }
 
-        org.bukkit.Location spawnLoc = world.getSpawnLocation();
+        org.bukkit.Location spawnLoc = arena.toGameLocation(world.getSpawnLocation());
         player.teleport(spawnLoc);
         player.sendMessage(plugin.getConfigManager().getPrefix() + "§aTeleported to arena: " + arenaName);
     }
@@ -379,6 +497,8 @@ public class AdminCommand implements CommandExecutor {
         player.sendMessage("§e/bwadmin setspawn <map> <team> §7- Set team spawn");
         player.sendMessage("§e/bwadmin setbed <map> <team> §7- Set team bed");
         player.sendMessage("§e/bwadmin addgen <map> <type> §7- Add generator");
+        player.sendMessage("§e/bwadmin setbounds <map> <x1> <z1> <x2> <z2> §7- Set export bounds");
+        player.sendMessage("§e/bwadmin setpool <map> <size> §7- Set pre-loaded world count");
         player.sendMessage("§e/bwadmin enable <map> §7- Enable a map");
         player.sendMessage("§e/bwadmin disable <map> §7- Disable a map");
         player.sendMessage("§e/bwadmin list §7- List all maps");
@@ -386,6 +506,7 @@ public class AdminCommand implements CommandExecutor {
         player.sendMessage("§6Arena & Game Management:");
         player.sendMessage("§e/bwadmin createarena <name> <map> <mode> §7- Create arena");
         player.sendMessage("§e/bwadmin games §7- View running games");
+        player.sendMessage("§e/bwadmin worlds §7- View world pool stats");
         player.sendMessage("§e/bwadmin tp <arena> §7- Teleport to game");
         player.sendMessage("§e/bwadmin forceend <arena> §7- Force end a game");
     }
@@ -70,26 +70,25 @@ public class BedwarsCommand implements CommandExecutor {
             return;
         }
 
-        Arena arena = plugin.getArenaManager().findAvailableArena(gameMode);
-        if (arena == null) {
-            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cNo available arenas!");
+        if (plugin.getGameManager().getAdmissionController().isQueued(player)) {
+            player.sendMessage(plugin.getConfigManager().getMessage("game.already-queued"));
             return;
         }
 
-        if (arena.isFull()) {
-            player.sendMessage(plugin.getConfigManager().getMessage("game.full"));
+        // The admission controller holds joins back while the server is struggling
+        if (plugin.getGameManager().getAdmissionController().tryQueueJoin(player, gameMode)) {
             return;
         }
 
-        arena.addPlayer(player);
-        player.sendMessage(plugin.getConfigManager().getMessage("game.joined"));
-
-        if (arena.canStart() && !arena.getPlayers().isEmpty()) {
-            plugin.getGameManager().startGame(arena);
-        }
+        plugin.getGameManager().joinGame(player, gameMode);
     }
 
     private void handleLeave(Player player) {
+        if (plugin.getGameManager().getAdmissionController().leaveQueue(player)) {
+            player.sendMessage(plugin.getConfigManager().getMessage("game.left-queue"));
+            return;
+        }
+
         Arena arena = plugin.getArenaManager().getPlayerArena(player);
         if (arena == null) {
             player.sendMessage(plugin.getConfigManager().getMessage("game.not-in-game"));
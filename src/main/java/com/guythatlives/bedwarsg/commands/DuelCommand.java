@@ -3,6 +3,7 @@ package com.guythatlives.bedwarsg.commands;
 import com.guythatlives.bedwarsg.BedwarsG;
 import com.guythatlives.bedwarsg.arena.Arena;
 import com.guythatlives.bedwarsg.arena.GameMode;
+import com.guythatlives.bedwarsg.task.TimerHandle;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -15,8 +16,10 @@ import java.util.UUID;
 
 public class DuelCommand implements CommandExecutor {
 
+    private static final long REQUEST_EXPIRY_TICKS = 60 * 20L;
+
     private final BedwarsG plugin;
-    private Map<UUID, Map<UUID, Long>> duelRequests;
+    private Map<UUID, Map<UUID, TimerHandle>> duelRequests;
 
     public DuelCommand(BedwarsG plugin) {
         this.plugin = plugin;
@@ -75,8 +78,15 @@ public class DuelCommand implements CommandExecutor {
     }
 
     private void sendRequest(Player from, Player to) {
-        duelRequests.computeIfAbsent(to.getUniqueId(), k -> new HashMap<>())
-                .put(from.getUniqueId(), System.currentTimeMillis());
+        UUID fromId = from.getUniqueId();
+        UUID toId = to.getUniqueId();
+
+        // Requests expire after 60 seconds
+        TimerHandle expiry = plugin.getTimerService().schedule(REQUEST_EXPIRY_TICKS, () -> expireRequest(fromId, toId));
+        TimerHandle previous = duelRequests.computeIfAbsent(toId, k -> new HashMap<>()).put(fromId, expiry);
+        if (previous != null) {
+            previous.cancel();
+        }
 
         Map<String, String> placeholders = new HashMap<>();
         placeholders.put("player", to.getName());
@@ -86,31 +96,39 @@ public class DuelCommand implements CommandExecutor {
         to.sendMessage(plugin.getConfigManager().getMessage("duel.received", placeholders));
     }
 
-    private boolean hasRequest(Player to, Player from) {
-        Map<UUID, Long> requests = duelRequests.get(to.getUniqueId());
-        if (requests == null) {
-            return false;
+    private void expireRequest(UUID fromId, UUID toId) {
+        Map<UUID, TimerHandle> requests = duelRequests.get(toId);
+        if (requests == null || requests.remove(fromId) == null) {
+            return;
         }
-
-        Long requestTime = requests.get(from.getUniqueId());
-        if (requestTime == null) {
-            return false;
+        if (requests.isEmpty()) {
+            duelRequests.remove(toId);
         }
 
-        // Requests expire after 60 seconds
-        if (System.currentTimeMillis() - requestTime > 60000) {
-            requests.remove(from.getUniqueId());
-            return false;
+        String message = plugin.getConfigManager().getMessage("duel.expired");
+        Player from = Bukkit.getPlayer(fromId);
+        if (from != null) {
+            from.sendMessage(message);
+        }
+        Player to = Bukkit.getPlayer(toId);
+        if (to != null) {
+            to.sendMessage(message);
         }
+    }
 
-        return true;
+    private boolean hasRequest(Player to, Player from) {
+        Map<UUID, TimerHandle> requests = duelRequests.get(to.getUniqueId());
+        return requests != null && requests.containsKey(from.getUniqueId());
     }
 
     private void acceptDuel(Player player1, Player player2) {
         // Remove requests
-        Map<UUID, Long> requests = duelRequests.get(player1.getUniqueId());
+        Map<UUID, TimerHandle> requests = duelRequests.get(player1.getUniqueId());
         if (requests != null) {
-            requests.remove(player2.getUniqueId());
+            TimerHandle expiry = requests.remove(player2.getUniqueId());
+            if (expiry != null) {
+                expiry.cancel();
+            }
         }
 
         player1.sendMessage(plugin.getConfigManager().getMessage("duel.accepted"));
@@ -0,0 +1,156 @@
+package com.guythatlives.bedwarsg.game;
+
+import com.guythatlives.bedwarsg.BedwarsG;
+import com.guythatlives.bedwarsg.arena.GameMode;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.*;
+
+public class AdmissionController extends BukkitRunnable {
+
+    private static final int SAMPLES = 100;
+    private static final int TICKS_PER_SECOND = 20;
+    private static final int POSITION_UPDATE_SECONDS = 10;
+
+    private final BedwarsG plugin;
+    private final long[] tickNanos;
+    private final LinkedHashMap<UUID, GameMode> joinQueue;
+    private long sampleSum;
+    private int sampleIndex;
+    private int sampleCount;
+    private long lastTick;
+    private long currentTick;
+    private int creatingWorlds;
+
+    public AdmissionController(BedwarsG plugin) {
+        this.plugin = plugin;
+        this.tickNanos = new long[SAMPLES];
+        this.joinQueue = new LinkedHashMap<>();
+    }
+
+    public void start() {
+        runTaskTimer(plugin, 1L, 1L);
+    }
+
+    @Override
+    public void run() {
+        // Time between two runs is the length of the last server tick, 50ms when the server keeps up
+        long now = System.nanoTime();
+        if (lastTick != 0) {
+            sampleSum += (now - lastTick) - tickNanos[sampleIndex];
+            tickNanos[sampleIndex] = now - lastTick;
+            sampleIndex = (sampleIndex + 1) % SAMPLES;
+            sampleCount = Math.min(SAMPLES, sampleCount + 1);
+        }
+        lastTick = now;
+
+        if (++currentTick % TICKS_PER_SECOND == 0 && !joinQueue.isEmpty()) {
+            admitQueued();
+        }
+    }
+
+    private void admitQueued() {
+        if (!shouldQueueJoins()) {
+            int admitted = Math.max(1, plugin.getConfigManager().getInt("admission.joins-per-second"));
+            Iterator<Map.Entry<UUID, GameMode>> iterator = joinQueue.entrySet().iterator();
+            while (iterator.hasNext() && admitted-- > 0) {
+                Map.Entry<UUID, GameMode> entry = iterator.next();
+                iterator.remove();
+
+                Player player = plugin.getServer().getPlayer(entry.getKey());
+                if (player != null) {
+                    plugin.getGameManager().joinGame(player, entry.getValue());
+                }
+            }
+        }
+
+        if (currentTick % (TICKS_PER_SECOND * POSITION_UPDATE_SECONDS) == 0) {
+            int position = 0;
+            for (UUID uuid : joinQueue.keySet()) {
+                Player player = plugin.getServer().getPlayer(uuid);
+                if (player != null) {
+                    sendPosition(player, ++position);
+                }
+            }
+        }
+    }
+
+    public double getAverageTickMillis() {
+        return sampleCount == 0 ? 50.0 : sampleSum / (double) sampleCount / 1_000_000.0;
+    }
+
+    private boolean isEnabled() {
+        return plugin.getConfigManager().getBoolean("admission.enabled");
+    }
+
+    public boolean shouldQueueJoins() {
+        return isEnabled() && getAverageTickMillis() > plugin.getConfigManager().getDouble("admission.queue-joins-above-mspt");
+    }
+
+    public boolean tryQueueJoin(Player player, GameMode gameMode) {
+        // Once anyone is waiting, later joins line up behind them so nobody is overtaken
+        if (joinQueue.isEmpty() && !shouldQueueJoins()) {
+            return false;
+        }
+
+        joinQueue.put(player.getUniqueId(), gameMode);
+        sendPosition(player, getQueuePosition(player));
+        return true;
+    }
+
+    public boolean isQueued(Player player) {
+        return joinQueue.containsKey(player.getUniqueId());
+    }
+
+    public boolean leaveQueue(Player player) {
+        return joinQueue.remove(player.getUniqueId()) != null;
+    }
+
+    public int getQueuePosition(Player player) {
+        int position = 0;
+        for (UUID uuid : joinQueue.keySet()) {
+            position++;
+            if (uuid.equals(player.getUniqueId())) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private void sendPosition(Player player, int position) {
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("position", String.valueOf(position));
+        placeholders.put("size", String.valueOf(joinQueue.size()));
+        player.sendMessage(plugin.getConfigManager().getMessage("game.queued", placeholders));
+    }
+
+    public boolean canBeginGame(boolean createsWorld, int runningGames) {
+        if (runningGames + creatingWorlds >= plugin.getConfigManager().getInt("performance.max-arenas")) {
+            return false;
+        }
+        if (!isEnabled()) {
+            return true;
+        }
+        if (getAverageTickMillis() > plugin.getConfigManager().getDouble("admission.delay-starts-above-mspt")) {
+            return false;
+        }
+        return !createsWorld || creatingWorlds < Math.max(1, plugin.getConfigManager().getInt("admission.max-concurrent-world-creation"));
+    }
+
+    public void worldCreationStarted() {
+        creatingWorlds++;
+    }
+
+    public void worldCreationFinished() {
+        creatingWorlds = Math.max(0, creatingWorlds - 1);
+    }
+
+    public int getQueueSize() {
+        return joinQueue.size();
+    }
+
+    public int getCreatingWorlds() {
+        return creatingWorlds;
+    }
+}
@@ -0,0 +1,99 @@
+package com.guythatlives.bedwarsg.game;
+
+import com.guythatlives.bedwarsg.BedwarsG;
+import com.guythatlives.bedwarsg.arena.Arena;
+import com.guythatlives.bedwarsg.arena.ArenaState;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.Arrays;
+
+public class ArenaTicker extends BukkitRunnable {
+
+    private static final int TICKS_PER_SECOND = 20;
+
+    private final BedwarsG plugin;
+    private final GameManager gameManager;
+    private final int[] phaseLoad;
+
+    private Arena[] arenas;
+    private int[] phases;
+    private int size;
+    private long currentTick;
+
+    public ArenaTicker(BedwarsG plugin, GameManager gameManager) {
+        this.plugin = plugin;
+        this.gameManager = gameManager;
+        this.phaseLoad = new int[TICKS_PER_SECOND];
+        this.arenas = new Arena[16];
+        this.phases = new int[16];
+    }
+
+    public void start() {
+        runTaskTimer(plugin, 1L, 1L);
+    }
+
+    public void register(Arena arena) {
+        for (int i = 0; i < size; i++) {
+            if (arenas[i] == arena) {
+                return;
+            }
+        }
+
+        if (size == arenas.length) {
+            arenas = Arrays.copyOf(arenas, size * 2);
+            phases = Arrays.copyOf(phases, size * 2);
+        }
+
+        // Put the arena on the least busy tick so per-second work is spread over the whole second
+        int phase = 0;
+        for (int i = 1; i < TICKS_PER_SECOND; i++) {
+            if (phaseLoad[i] < phaseLoad[phase]) {
+                phase = i;
+            }
+        }
+
+        arenas[size] = arena;
+        phases[size] = phase;
+        phaseLoad[phase]++;
+        size++;
+    }
+
+    private void unregister(int index) {
+        phaseLoad[phases[index]]--;
+        size--;
+        arenas[index] = arenas[size];
+        phases[index] = phases[size];
+        arenas[size] = null;
+    }
+
+    @Override
+    public void run() {
+        int tickInSecond = (int) (currentTick++ % TICKS_PER_SECOND);
+
+        for (int i = 0; i < size; i++) {
+            Arena arena = arenas[i];
+            if (arena.getState() == ArenaState.WAITING || arena.getState() == ArenaState.DISABLED) {
+                // Back to idle, drop it and look at whatever was swapped into this slot
+                unregister(i--);
+                continue;
+            }
+
+            if (phases[i] != tickInSecond) {
+                continue;
+            }
+
+            if (arena.getState() == ArenaState.STARTING) {
+                gameManager.tickCountdown(arena);
+            } else if (arena.getState() == ArenaState.RUNNING) {
+                Game game = gameManager.getGame(arena);
+                if (game != null) {
+                    game.tick();
+                }
+            }
+        }
+    }
+
+    public int getArenaCount() {
+        return size;
+    }
+}
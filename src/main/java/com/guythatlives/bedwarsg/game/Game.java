@@ -3,8 +3,15 @@ package com.guythatlives.bedwarsg.game;
 import com.guythatlives.bedwarsg.BedwarsG;
 import com.guythatlives.bedwarsg.arena.Arena;
 import com.guythatlives.bedwarsg.arena.BedwarsTeam;
+import com.guythatlives.bedwarsg.generator.GeneratorSet;
+import com.guythatlives.bedwarsg.task.TimerHandle;
+import com.guythatlives.bedwarsg.task.WorkJob;
+import com.guythatlives.bedwarsg.world.BlockJournal;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.type.Bed;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.*;
 
@@ -13,85 +20,318 @@ public class Game {
     private final Arena arena;
     private final BedwarsG plugin;
     private final Map<UUID, PlayerData> playerData;
-    private BukkitRunnable gameTask;
+    private final Map<UUID, TimerHandle> respawnTimers;
+    private final Set<UUID> outPlayers;
+    private GeneratorSet generators;
+    private int aliveTeams;
+    private boolean started;
+    private boolean decided;
+    private int phaseCursor;
 
     public Game(Arena arena, BedwarsG plugin) {
         this.arena = arena;
         this.plugin = plugin;
         this.playerData = new HashMap<>();
+        this.respawnTimers = new HashMap<>();
+        this.outPlayers = new HashSet<>();
     }
 
     public void start() {
+        // Arenas are reused, the phases count from this game's start
+        arena.setGameTimer(0);
+
         // Initialize player data
         for (Player player : arena.getPlayers()) {
             playerData.put(player.getUniqueId(), new PlayerData(player));
         }
 
-        // Start game loop
-        gameTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                tick();
+        // Alive counts are kept up to date by deaths, joins and leaves from here on
+        for (BedwarsTeam team : arena.getTeams().values()) {
+            team.setAlivePlayers(0);
+        }
+        for (Player player : arena.getPlayers()) {
+            BedwarsTeam team = arena.getPlayerTeam(player);
+            if (team != null) {
+                team.setAlivePlayers(team.getAlivePlayers() + 1);
+            }
+        }
+        aliveTeams = 0;
+        for (BedwarsTeam team : arena.getTeams().values()) {
+            team.setEliminated(team.getAlivePlayers() == 0);
+            if (!team.isEliminated()) {
+                aliveTeams++;
             }
-        };
-        gameTask.runTaskTimer(plugin, 0L, 20L);
+        }
+
+        // The game loop is driven once per second by the ArenaTicker
+        generators = plugin.getGameManager().getGeneratorEngine().register(arena);
     }
 
-    private void tick() {
-        // Check win conditions
-        BedwarsTeam winner = checkWinCondition();
-        if (winner != null) {
-            plugin.getGameManager().endGame(arena, winner);
-            if (gameTask != null) {
-                gameTask.cancel();
-            }
+    /**
+     * Starts the phase clock once everyone has landed on their island, leaves and deaths while the spawn teleports
+     * were still queued are counted but only decide the game from here.
+     */
+    public void begin() {
+        if (started) {
+            return;
+        }
+        started = true;
+
+        // A game that starts with a single team is already decided
+        checkWinner();
+    }
+
+    public void tick() {
+        if (!started) {
+            return;
         }
 
         // Update game timer
         arena.setGameTimer(arena.getGameTimer() + 1);
+
+        // Phases are sorted by time, only the next one ever needs checking
+        GamePhase[] phases = arena.getPhases();
+        while (phaseCursor < phases.length && phases[phaseCursor].getTime() <= arena.getGameTimer()) {
+            runPhase(phases[phaseCursor++]);
+            if (decided) {
+                return;
+            }
+        }
     }
 
-    private BedwarsTeam checkWinCondition() {
-        List<BedwarsTeam> aliveTeams = new ArrayList<>();
+    private void runPhase(GamePhase phase) {
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("phase", phase.getName());
+        String message = plugin.getConfigManager().getMessage("game.phase", placeholders);
+        for (Player player : arena.getPlayers()) {
+            player.sendMessage(message);
+        }
+
+        switch (phase.getAction()) {
+            case GENERATOR_UPGRADE:
+                if (generators != null) {
+                    generators.upgrade(phase.getGenerator(), phase.getIntervalTicks());
+                }
+                break;
+            case BED_DESTRUCTION:
+                destroyBeds();
+                break;
+            case SUDDEN_DEATH:
+                destroyBeds();
+                for (Player player : arena.getPlayers()) {
+                    if (!outPlayers.contains(player.getUniqueId())) {
+                        player.setGlowing(true);
+                    }
+                }
+                break;
+            case GAME_END:
+                decided = true;
+                plugin.getGameManager().endGame(arena, null);
+                break;
+        }
+    }
+
+    private void destroyBeds() {
+        BlockJournal journal = arena.getJournal();
+        String message = plugin.getConfigManager().getMessage("game.bed-destroyed");
 
         for (BedwarsTeam team : arena.getTeams().values()) {
-            if (!team.isEliminated()) {
-                boolean hasAlivePlayers = false;
-                for (UUID uuid : team.getPlayers()) {
-                    Player player = plugin.getServer().getPlayer(uuid);
-                    if (player != null && player.isOnline()) {
-                        hasAlivePlayers = true;
-                        break;
+            if (!team.isBedAlive()) {
+                continue;
+            }
+            team.setBedAlive(false);
+
+            org.bukkit.Location location = arena.toGameLocation(arena.getMap().getBed(team.getColor()));
+            if (location != null) {
+                Block block = location.getBlock();
+                if (block.getBlockData() instanceof Bed) {
+                    Bed bed = (Bed) block.getBlockData();
+                    BlockFace towardsOtherHalf = bed.getPart() == Bed.Part.HEAD ? bed.getFacing().getOppositeFace() : bed.getFacing();
+                    Block otherHalf = block.getRelative(towardsOtherHalf);
+                    if (journal != null) {
+                        journal.record(block);
+                        journal.record(otherHalf);
                     }
+                    block.setType(Material.AIR, false);
+                    otherHalf.setType(Material.AIR, false);
                 }
+            }
 
-                if (hasAlivePlayers) {
-                    aliveTeams.add(team);
-                } else {
-                    team.setEliminated(true);
+            for (UUID uuid : team.getPlayers()) {
+                Player player = plugin.getServer().getPlayer(uuid);
+                if (player != null) {
+                    player.sendMessage(message);
                 }
             }
         }
+    }
+
+    public int getPhaseCursor() {
+        return phaseCursor;
+    }
+
+    public void scheduleRespawn(Player player) {
+        TimerHandle previous = respawnTimers.remove(player.getUniqueId());
+        if (previous != null) {
+            previous.cancel();
+        }
+        respawnCountdown(player.getUniqueId(), plugin.getConfigManager().getInt("respawn.time"));
+    }
+
+    private void respawnCountdown(UUID uuid, int timeLeft) {
+        Player player = plugin.getServer().getPlayer(uuid);
+        BedwarsTeam team = player != null ? arena.getPlayerTeam(player) : null;
+        if (team == null) {
+            respawnTimers.remove(uuid);
+            return;
+        }
+
+        if (timeLeft <= 0) {
+            // Respawn player
+            respawnTimers.remove(uuid);
+            org.bukkit.Location spawn = arena.toGameLocation(arena.getMap().getSpawn(team.getColor()));
+            if (spawn != null) {
+                player.spigot().respawn();
+                player.teleport(spawn);
+            }
+            return;
+        }
+
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("time", String.valueOf(timeLeft));
+        player.sendMessage(plugin.getConfigManager().getMessage("game.respawn-in", placeholders));
+        respawnTimers.put(uuid, plugin.getTimerService().schedule(20L, () -> respawnCountdown(uuid, timeLeft - 1)));
+    }
+
+    public void handleJoin(Player player) {
+        BedwarsTeam team = arena.getPlayerTeam(player);
+        if (team == null) {
+            return;
+        }
+
+        playerData.putIfAbsent(player.getUniqueId(), new PlayerData(player));
+        if (team.isEliminated()) {
+            outPlayers.add(player.getUniqueId());
+        } else {
+            team.setAlivePlayers(team.getAlivePlayers() + 1);
+        }
+    }
+
+    public void handleLeave(Player player, BedwarsTeam team) {
+        player.setGlowing(false);
+        TimerHandle timer = respawnTimers.remove(player.getUniqueId());
+        if (timer != null) {
+            timer.cancel();
+        }
+
+        // Leaving counts as a loss, recorded now so the end of the game only deals with those still in it
+        PlayerData data = playerData.remove(player.getUniqueId());
+        if (data != null) {
+            plugin.getStatsManager().updateStats(player, data, false);
+        }
+
+        // Players already out of the game were counted when they died
+        if (!outPlayers.remove(player.getUniqueId())) {
+            playerOut(team);
+        }
+    }
+
+    public void eliminatePlayer(Player player) {
+        if (outPlayers.add(player.getUniqueId())) {
+            // Spectators don't keep generators running
+            if (generators != null) {
+                generators.getProximity().remove(player.getUniqueId());
+            }
+            playerOut(arena.getPlayerTeam(player));
+        }
+    }
 
-        return aliveTeams.size() == 1 ? aliveTeams.get(0) : null;
+    public boolean isOut(Player player) {
+        return outPlayers.contains(player.getUniqueId());
+    }
+
+    private void playerOut(BedwarsTeam team) {
+        if (team == null || team.isEliminated()) {
+            return;
+        }
+
+        team.setAlivePlayers(team.getAlivePlayers() - 1);
+        if (team.getAlivePlayers() > 0) {
+            return;
+        }
+
+        team.setEliminated(true);
+        aliveTeams--;
+
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("team", team.getDisplayName());
+        String message = plugin.getConfigManager().getMessage("game.elimination", placeholders);
+        for (Player p : arena.getPlayers()) {
+            p.sendMessage(message);
+        }
+
+        checkWinner();
+    }
+
+    public void checkWinner() {
+        if (decided || !started || aliveTeams > 1) {
+            return;
+        }
+        decided = true;
+
+        // Only runs once per game, so looking up the last team standing here is fine
+        BedwarsTeam winner = null;
+        for (BedwarsTeam team : arena.getTeams().values()) {
+            if (!team.isEliminated()) {
+                winner = team;
+                break;
+            }
+        }
+        plugin.getGameManager().endGame(arena, winner);
     }
 
     public void end(BedwarsTeam winner) {
-        if (gameTask != null) {
-            gameTask.cancel();
+        if (generators != null) {
+            plugin.getGameManager().getGeneratorEngine().unregister(generators);
+            generators = null;
         }
 
-        // Save stats
+        for (TimerHandle timer : respawnTimers.values()) {
+            timer.cancel();
+        }
+        respawnTimers.clear();
+
+        // Stats are saved a player at a time by the work executor, so a big game ending doesn't stall the tick
+        List<Player> players = new ArrayList<>();
+        List<PlayerData> data = new ArrayList<>();
+        List<Boolean> won = new ArrayList<>();
         for (Map.Entry<UUID, PlayerData> entry : playerData.entrySet()) {
             Player player = plugin.getServer().getPlayer(entry.getKey());
             if (player != null) {
-                PlayerData data = entry.getValue();
                 BedwarsTeam team = arena.getPlayerTeam(player);
-
-                boolean won = team != null && team.equals(winner);
-                plugin.getStatsManager().updateStats(player, data, won);
+                players.add(player);
+                data.add(entry.getValue());
+                won.add(team != null && team.equals(winner));
             }
         }
+
+        plugin.getWorkExecutor().submit(new WorkJob() {
+            int next = 0;
+
+            @Override
+            public boolean runUnit() {
+                if (next < players.size()) {
+                    plugin.getStatsManager().updateStats(players.get(next), data.get(next), won.get(next));
+                    next++;
+                }
+                return next < players.size();
+            }
+
+            @Override
+            public boolean runsOnShutdown() {
+                return true;
+            }
+        });
     }
 
     public Arena getArena() {
@@ -3,12 +3,18 @@ package com.guythatlives.bedwarsg.game;
 import com.guythatlives.bedwarsg.BedwarsG;
 import com.guythatlives.bedwarsg.arena.Arena;
 import com.guythatlives.bedwarsg.arena.ArenaState;
+import com.guythatlives.bedwarsg.arena.BedIndex;
 import com.guythatlives.bedwarsg.arena.BedwarsTeam;
 import com.guythatlives.bedwarsg.arena.GameMode;
+import com.guythatlives.bedwarsg.generator.GeneratorEngine;
+import com.guythatlives.bedwarsg.map.ArenaBounds;
 import com.guythatlives.bedwarsg.map.BedwarsMap;
+import com.guythatlives.bedwarsg.task.WorkJob;
+import com.guythatlives.bedwarsg.util.LongHashSet;
+import com.guythatlives.bedwarsg.world.BlockJournal;
 import org.bukkit.Bukkit;
-import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.Chunk;
+import org.bukkit.entity.*;
 
 import java.util.*;
 
@@ -16,10 +22,23 @@ public class GameManager {
 
     private final BedwarsG plugin;
     private Map<String, Game> activeGames;
+    private final TeleportScheduler teleportScheduler;
+    private final ArenaTicker arenaTicker;
+    private final GeneratorEngine generatorEngine;
+    private final AdmissionController admissionController;
+    private final Set<Arena> delayedStarts;
 
     public GameManager(BedwarsG plugin) {
         this.plugin = plugin;
         this.activeGames = new HashMap<>();
+        this.teleportScheduler = new TeleportScheduler(plugin);
+        this.arenaTicker = new ArenaTicker(plugin, this);
+        this.arenaTicker.start();
+        this.generatorEngine = new GeneratorEngine(plugin);
+        this.generatorEngine.start();
+        this.admissionController = new AdmissionController(plugin);
+        this.admissionController.start();
+        this.delayedStarts = new HashSet<>();
     }
 
     public Game createGame(Arena arena) {
@@ -34,59 +53,189 @@ public class GameManager {
         }
 
         arena.setState(ArenaState.STARTING);
+        delayedStarts.remove(arena);
         int countdownTime = plugin.getConfigManager().getInt("settings.countdown-time");
         arena.setCountdown(countdownTime);
+        arenaTicker.register(arena);
+    }
 
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (arena.getState() != ArenaState.STARTING) {
-                    cancel();
+    void tickCountdown(Arena arena) {
+        int countdown = arena.getCountdown();
+        if (countdown < 0) {
+            // Waiting for the game world
+            return;
+        }
+
+        if (countdown == 0) {
+            // An overloaded server holds the game at zero until it has room for another one
+            if (!admissionController.canBeginGame(!keepsWorld(arena), activeGames.size())) {
+                if (delayedStarts.add(arena)) {
+                    String message = plugin.getConfigManager().getMessage("game.start-delayed");
+                    for (Player player : arena.getPlayers()) {
+                        player.sendMessage(message);
+                    }
+                }
+                return;
+            }
+
+            delayedStarts.remove(arena);
+            arena.setCountdown(-1);
+            beginGame(arena);
+            return;
+        }
+
+        if (countdown <= 10 || countdown % 10 == 0) {
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("time", String.valueOf(countdown));
+            String message = plugin.getConfigManager().getMessage("game.countdown", placeholders);
+
+            for (Player player : arena.getPlayers()) {
+                player.sendMessage(message);
+            }
+        }
+
+        arena.setCountdown(countdown - 1);
+    }
+
+    private void beginGame(Arena arena) {
+        // Journal arenas keep their world between games, it was rolled back when the last one ended
+        if (keepsWorld(arena)) {
+            startInWorld(arena, arena.getGameWorldName());
+            return;
+        }
+
+        admissionController.worldCreationStarted();
+
+        // Small modes share one world per map, each arena gets its own cell in it
+        if (usesSharedWorld(arena)) {
+            plugin.getWorldManager().acquireInstance(arena.getMap().getName(), instance -> {
+                admissionController.worldCreationFinished();
+                if (instance == null) {
+                    plugin.getLogger().severe("Failed to place arena " + arena.getName() + " in a shared world");
+                    for (Player player : arena.getPlayers()) {
+                        player.sendMessage(plugin.getConfigManager().getPrefix() + "§cFailed to start game! Contact an administrator.");
+                    }
+                    resetArena(arena);
                     return;
                 }
 
-                int countdown = arena.getCountdown();
-                if (countdown <= 0) {
-                    beginGame(arena);
-                    cancel();
+                arena.setInstance(instance);
+                if (arena.getState() != ArenaState.STARTING || arena.getPlayers().isEmpty()) {
+                    // The cell stays with the arena for its next game
+                    arena.setGameWorldName(instance.getWorldName());
+                    resetArena(arena);
                     return;
                 }
 
-                if (countdown <= 10 || countdown % 10 == 0) {
-                    Map<String, String> placeholders = new HashMap<>();
-                    placeholders.put("time", String.valueOf(countdown));
-                    String message = plugin.getConfigManager().getMessage("game.countdown", placeholders);
+                startInWorld(arena, instance.getWorldName());
+            });
+            return;
+        }
 
-                    for (Player player : arena.getPlayers()) {
-                        player.sendMessage(message);
-                    }
+        // Take a temporary game world from the pool, or wait for a fresh copy
+        plugin.getWorldManager().acquireGameWorld(arena.getMap().getName(), worldName -> {
+            admissionController.worldCreationFinished();
+            if (worldName == null) {
+                plugin.getLogger().severe("Failed to create game world for arena: " + arena.getName());
+                for (Player player : arena.getPlayers()) {
+                    player.sendMessage(plugin.getConfigManager().getPrefix() + "§cFailed to start game! Contact an administrator.");
                 }
+                resetArena(arena);
+                return;
+            }
 
-                arena.setCountdown(countdown - 1);
+            // Everyone left while the world was being copied
+            if (arena.getState() != ArenaState.STARTING || arena.getPlayers().isEmpty()) {
+                plugin.getWorldManager().deleteGameWorld(worldName);
+                resetArena(arena);
+                return;
             }
-        }.runTaskTimer(plugin, 0L, 20L);
+
+            startInWorld(arena, worldName);
+        });
     }
 
-    private void beginGame(Arena arena) {
-        // Create temporary game world
-        String worldName = plugin.getWorldManager().createGameWorld(arena.getMap().getName());
-        if (worldName == null) {
-            plugin.getLogger().severe("Failed to create game world for arena: " + arena.getName());
-            for (Player player : arena.getPlayers()) {
-                player.sendMessage(plugin.getConfigManager().getPrefix() + "§cFailed to start game! Contact an administrator.");
-            }
-            resetArena(arena);
+    private boolean keepsWorld(Arena arena) {
+        String keptWorld = arena.getGameWorldName();
+        return keptWorld != null && Bukkit.getWorld(keptWorld) != null
+                && (usesJournalReset(arena.getMap()) || arena.getInstance() != null);
+    }
+
+    public void joinGame(Player player, GameMode gameMode) {
+        Arena arena = plugin.getArenaManager().findAvailableArena(gameMode);
+        if (arena == null) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cNo available arenas!");
+            return;
+        }
+
+        if (arena.isFull()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("game.full"));
             return;
         }
 
+        arena.addPlayer(player);
+        player.sendMessage(plugin.getConfigManager().getMessage("game.joined"));
+
+        if (arena.canStart() && !arena.getPlayers().isEmpty()) {
+            startGame(arena);
+        }
+    }
+
+    private void startInWorld(Arena arena, String worldName) {
         arena.setGameWorldName(worldName);
+        org.bukkit.World gameWorld = Bukkit.getWorld(worldName);
+        if (gameWorld == null || !plugin.getConfigManager().getBoolean("chunk-preload.enabled")) {
+            launchGame(arena, gameWorld);
+            return;
+        }
+
+        // Load the chunks players land in over a few ticks instead of all at once during the teleports
+        plugin.getWorldManager().getChunkPreloader().preload(gameWorld, getPreloadPoints(arena), pinned -> {
+            arena.setPinnedChunks(pinned);
+
+            if (arena.getState() != ArenaState.STARTING || arena.getPlayers().isEmpty()) {
+                resetArena(arena);
+                return;
+            }
+
+            launchGame(arena, gameWorld);
+        });
+    }
+
+    private List<org.bukkit.Location> getPreloadPoints(Arena arena) {
+        List<org.bukkit.Location> points = new ArrayList<>();
+        BedwarsMap map = arena.getMap();
+        for (org.bukkit.Location location : map.getSpawns().values()) {
+            points.add(arena.toGameLocation(location));
+        }
+        for (org.bukkit.Location location : map.getBeds().values()) {
+            points.add(arena.toGameLocation(location));
+        }
+        for (List<org.bukkit.Location> generators : map.getGenerators().values()) {
+            for (org.bukkit.Location location : generators) {
+                points.add(arena.toGameLocation(location));
+            }
+        }
+        return points;
+    }
+
+    private void launchGame(Arena arena, org.bukkit.World gameWorld) {
         arena.setState(ArenaState.RUNNING);
+        if (usesJournalReset(arena.getMap()) || arena.getInstance() != null) {
+            arena.setJournal(new BlockJournal());
+        }
+
+        // Chunks are pinned by now, so reading the beds doesn't load anything
+        if (gameWorld != null) {
+            arena.setBedIndex(BedIndex.build(arena));
+        }
+        arena.setPlacedBlocks(new LongHashSet());
 
         Game game = createGame(arena);
         game.start();
 
         String message = plugin.getConfigManager().getMessage("game.started");
-        org.bukkit.World gameWorld = Bukkit.getWorld(worldName);
+        Map<Player, org.bukkit.Location> spawns = new HashMap<>();
 
         for (Player player : arena.getPlayers()) {
             player.sendMessage(message);
@@ -95,20 +244,19 @@ public class GameManager {
             // Teleport to team spawn in game world
             BedwarsTeam team = arena.getPlayerTeam(player);
             if (team != null && gameWorld != null) {
-                org.bukkit.Location originalSpawn = arena.getMap().getSpawn(team.getColor());
-                if (originalSpawn != null) {
-                    org.bukkit.Location gameSpawn = new org.bukkit.Location(
-                        gameWorld,
-                        originalSpawn.getX(),
-                        originalSpawn.getY(),
-                        originalSpawn.getZ(),
-                        originalSpawn.getYaw(),
-                        originalSpawn.getPitch()
-                    );
-                    player.teleport(gameSpawn);
+                org.bukkit.Location gameSpawn = arena.toGameLocation(arena.getMap().getSpawn(team.getColor()));
+                if (gameSpawn != null) {
+                    spawns.put(player, gameSpawn);
                 }
             }
         }
+
+        teleportScheduler.teleport(spawns, player -> plugin.getArenaManager().getPlayerArena(player) == arena, () -> {
+            // The arena may have been reset while the teleports were queued
+            if (getGame(arena) == game) {
+                game.begin();
+            }
+        });
     }
 
     public void endGame(Arena arena, BedwarsTeam winner) {
@@ -134,12 +282,7 @@ public class GameManager {
         }
 
         // Schedule arena reset
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                resetArena(arena);
-            }
-        }.runTaskLater(plugin, 100L);
+        plugin.getTimerService().schedule(100L, () -> resetArena(arena));
     }
 
     public void endAllGames() {
@@ -150,18 +293,55 @@ public class GameManager {
 
     private void resetArena(Arena arena) {
         // Teleport players back to lobby
+        Map<Player, org.bukkit.Location> lobbyTeleports = new HashMap<>();
+        org.bukkit.Location lobbySpawn = getLobbySpawn();
         for (Player player : new ArrayList<>(arena.getPlayers())) {
             arena.removePlayer(player);
-            // Teleport to lobby spawn
-            org.bukkit.Location lobbySpawn = getLobbySpawn();
             if (lobbySpawn != null) {
-                player.teleport(lobbySpawn);
+                lobbyTeleports.put(player, lobbySpawn);
             }
             player.setGameMode(org.bukkit.GameMode.ADVENTURE);
+            player.setGlowing(false);
         }
 
-        // Delete game world
+        // The world is only touched once everyone has left it
+        // Anyone who joined another arena while waiting in the queue stays where they are
+        teleportScheduler.teleport(lobbyTeleports, player -> !plugin.getArenaManager().isInArena(player),
+                () -> releaseArenaWorld(arena));
+    }
+
+    private void releaseArenaWorld(Arena arena) {
         String worldName = arena.getGameWorldName();
+        BlockJournal journal = arena.getJournal();
+        arena.setJournal(null);
+
+        org.bukkit.World world = worldName != null ? Bukkit.getWorld(worldName) : null;
+        if (arena.getPinnedChunks() != null && world != null) {
+            plugin.getWorldManager().getChunkPreloader().release(world, arena.getPinnedChunks());
+        }
+        arena.setPinnedChunks(null);
+        arena.setBedIndex(null);
+        arena.setPlacedBlocks(null);
+
+        // Journal arenas put the changed blocks back instead of throwing the world away
+        if (journal != null && world != null) {
+            rollbackArena(arena, world, journal);
+            return;
+        }
+
+        // Shared worlds stay loaded for the other instances, the cell is only given up if the world is gone
+        if (arena.getInstance() != null) {
+            if (world == null) {
+                plugin.getWorldManager().releaseInstance(arena.getInstance());
+                arena.setInstance(null);
+                arena.setGameWorldName(null);
+            }
+            arena.setState(ArenaState.WAITING);
+            arena.setCountdown(0);
+            return;
+        }
+
+        // Delete game world
         if (worldName != null) {
             plugin.getWorldManager().deleteGameWorld(worldName);
             arena.setGameWorldName(null);
@@ -171,6 +351,102 @@ public class GameManager {
         arena.setCountdown(0);
     }
 
+    private void rollbackArena(Arena arena, org.bukkit.World world, BlockJournal journal) {
+        String worldName = world.getName();
+        ArenaBounds bounds = arena.getInstance() != null ? arena.getInstance().getBounds()
+                : arena.getMap().getExportBounds(plugin.getConfigManager().getInt("map-export.margin"));
+
+        // Arena stays in ENDING, so nobody can join until every block is restored
+        plugin.getWorkExecutor().submit(new WorkJob() {
+            int restored = 0;
+            int chunk = -1;
+            Chunk[] loadedChunks;
+            boolean worldGone;
+
+            @Override
+            public boolean runUnit() {
+                if (Bukkit.getWorld(worldName) == null) {
+                    worldGone = true;
+                    return false;
+                }
+
+                if (restored < journal.size()) {
+                    restored = journal.restore(world, restored, 1);
+                    return true;
+                }
+
+                // Drops, arrows and primed TNT from the last game would otherwise carry over,
+                // swept last and a chunk at a time so only the arena's own chunks are looked at
+                if (bounds == null) {
+                    if (loadedChunks == null) {
+                        loadedChunks = world.getLoadedChunks();
+                    }
+                    if (++chunk >= loadedChunks.length) {
+                        return false;
+                    }
+                    sweepChunk(loadedChunks[chunk]);
+                    return true;
+                }
+
+                int minChunkX = bounds.getMinX() >> 4;
+                int minChunkZ = bounds.getMinZ() >> 4;
+                int width = (bounds.getMaxX() >> 4) - minChunkX + 1;
+                int depth = (bounds.getMaxZ() >> 4) - minChunkZ + 1;
+                if (++chunk >= width * depth) {
+                    return false;
+                }
+                int chunkX = minChunkX + chunk % width;
+                int chunkZ = minChunkZ + chunk / width;
+                if (world.isChunkLoaded(chunkX, chunkZ)) {
+                    sweepChunk(world.getChunkAt(chunkX, chunkZ));
+                }
+                return true;
+            }
+
+            private void sweepChunk(Chunk loaded) {
+                for (Entity entity : loaded.getEntities()) {
+                    if ((entity instanceof Item || entity instanceof Projectile || entity instanceof TNTPrimed
+                            || entity instanceof FallingBlock || entity instanceof ExperienceOrb)
+                            && arena.isInArena(entity.getLocation())) {
+                        entity.remove();
+                    }
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                if (worldGone) {
+                    if (arena.getInstance() != null) {
+                        plugin.getWorldManager().releaseInstance(arena.getInstance());
+                        arena.setInstance(null);
+                    }
+                    arena.setGameWorldName(null);
+                }
+                arena.setState(ArenaState.WAITING);
+                arena.setCountdown(0);
+            }
+        });
+    }
+
+    private boolean usesSharedWorld(Arena arena) {
+        if (!plugin.getConfigManager().getBoolean("multi-instance.enabled")
+                || !plugin.getWorldManager().getCompactFile(arena.getMap().getName()).exists()) {
+            return false;
+        }
+
+        for (String mode : plugin.getConfigManager().getConfig().getStringList("multi-instance.game-modes")) {
+            if (arena.getGameMode() == GameMode.fromString(mode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean usesJournalReset(BedwarsMap map) {
+        String mode = map.getResetMode() != null ? map.getResetMode() : plugin.getConfigManager().getString("world-reset.mode");
+        return "journal".equalsIgnoreCase(mode);
+    }
+
     private org.bukkit.Location getLobbySpawn() {
         String world = plugin.getConfigManager().getString("settings.lobby-spawn.world");
         double x = plugin.getConfigManager().getDouble("settings.lobby-spawn.x");
@@ -187,6 +463,22 @@ public class GameManager {
         return new org.bukkit.Location(bukkitWorld, x, y, z, yaw, pitch);
     }
 
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    public GeneratorEngine getGeneratorEngine() {
+        return generatorEngine;
+    }
+
+    public ArenaTicker getArenaTicker() {
+        return arenaTicker;
+    }
+
+    public TeleportScheduler getTeleportScheduler() {
+        return teleportScheduler;
+    }
+
     public Game getGame(Arena arena) {
         return activeGames.get(arena.getName());
     }
@@ -0,0 +1,85 @@
+package com.guythatlives.bedwarsg.game;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+public class GamePhase {
+
+    private final String name;
+    private final int time;
+    private final PhaseAction action;
+    private final String generator;
+    private final int intervalTicks;
+
+    public GamePhase(String name, int time, PhaseAction action, String generator, int intervalTicks) {
+        this.name = name;
+        this.time = time;
+        this.action = action;
+        this.generator = generator;
+        this.intervalTicks = intervalTicks;
+    }
+
+    public static GamePhase[] compile(ConfigurationSection section, Logger logger) {
+        if (section == null) {
+            return new GamePhase[0];
+        }
+
+        List<GamePhase> phases = new ArrayList<>();
+        for (String key : section.getKeys(false)) {
+            ConfigurationSection phase = section.getConfigurationSection(key);
+            if (phase == null) {
+                continue;
+            }
+
+            PhaseAction action;
+            try {
+                action = PhaseAction.valueOf(phase.getString("action", "").toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logger.warning("Unknown action for game phase " + key);
+                continue;
+            }
+
+            String generator = phase.getString("generator");
+            if (action == PhaseAction.GENERATOR_UPGRADE && generator == null) {
+                logger.warning("Game phase " + key + " upgrades a generator but doesn't name one");
+                continue;
+            }
+
+            // Spawn rates are configured in seconds like the generators themselves
+            phases.add(new GamePhase(
+                    phase.getString("name", key),
+                    Math.max(0, phase.getInt("time")),
+                    action,
+                    generator != null ? generator.toLowerCase() : null,
+                    Math.max(1, (int) Math.round(phase.getDouble("spawn-rate", 1) * 20))));
+        }
+
+        // Sorted once here so the game only ever has to look at the next entry
+        phases.sort(Comparator.comparingInt(GamePhase::getTime));
+        return phases.toArray(new GamePhase[0]);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getTime() {
+        return time;
+    }
+
+    public PhaseAction getAction() {
+        return action;
+    }
+
+    public String getGenerator() {
+        return generator;
+    }
+
+    public int getIntervalTicks() {
+        return intervalTicks;
+    }
+}
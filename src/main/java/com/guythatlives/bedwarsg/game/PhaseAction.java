@@ -0,0 +1,12 @@
+package com.guythatlives.bedwarsg.game;
+
+public enum PhaseAction {
+    // Changes the spawn rate of one generator type
+    GENERATOR_UPGRADE,
+    // Removes every bed that is still standing, nobody respawns after this
+    BED_DESTRUCTION,
+    // Beds are removed and every player glows so the last fights can't be stalled
+    SUDDEN_DEATH,
+    // Ends the game as a draw
+    GAME_END
+}
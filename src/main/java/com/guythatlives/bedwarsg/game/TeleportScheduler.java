@@ -0,0 +1,166 @@
+package com.guythatlives.bedwarsg.game;
+
+import com.guythatlives.bedwarsg.BedwarsG;
+import com.guythatlives.bedwarsg.world.CompactArena;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+public class TeleportScheduler {
+
+    private final BedwarsG plugin;
+    private final Deque<PendingTeleport> queue;
+    private final Method getChunkAtAsync;
+    private BukkitRunnable task;
+
+    public TeleportScheduler(BedwarsG plugin) {
+        this.plugin = plugin;
+        this.queue = new ArrayDeque<>();
+        this.getChunkAtAsync = findAsyncChunkLoader();
+    }
+
+    private static Method findAsyncChunkLoader() {
+        // Paper loads chunks off the main thread, Spigot only has the blocking getChunkAt
+        try {
+            return World.class.getMethod("getChunkAtAsync", int.class, int.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    public void teleport(Map<Player, Location> targets, Runnable callback) {
+        teleport(targets, null, callback);
+    }
+
+    /**
+     * Queues the teleports, a player only goes once it's their turn and the condition (if any) still holds for them.
+     */
+    public void teleport(Map<Player, Location> targets, Predicate<Player> condition, Runnable callback) {
+        if (targets.isEmpty()) {
+            if (callback != null) {
+                callback.run();
+            }
+            return;
+        }
+
+        // Players heading to the same chunk go out back to back, so each chunk is loaded once
+        List<Map.Entry<Player, Location>> ordered = new ArrayList<>(targets.entrySet());
+        ordered.sort(Comparator.comparing((Map.Entry<Player, Location> entry) -> entry.getValue().getWorld().getName())
+                .thenComparingLong(entry -> chunkKey(entry.getValue())));
+
+        Batch batch = new Batch(ordered.size(), condition, callback);
+        for (Map.Entry<Player, Location> entry : ordered) {
+            queue.add(new PendingTeleport(entry.getKey(), entry.getValue(), batch));
+        }
+
+        if (task == null) {
+            task = new BukkitRunnable() {
+                @Override
+                public void run() {
+                    tick();
+                }
+            };
+            task.runTaskTimer(plugin, 0L, 1L);
+        }
+    }
+
+    private void tick() {
+        int budget = Math.max(1, plugin.getConfigManager().getInt("teleport.per-tick"));
+        for (int i = 0; i < budget && !queue.isEmpty(); i++) {
+            PendingTeleport next = queue.poll();
+            if (!next.isWanted()) {
+                next.batch.complete();
+                continue;
+            }
+
+            World world = next.location.getWorld();
+            int chunkX = next.location.getBlockX() >> 4;
+            int chunkZ = next.location.getBlockZ() >> 4;
+            if (getChunkAtAsync == null || world.isChunkLoaded(chunkX, chunkZ)) {
+                next.player.teleport(next.location);
+                next.batch.complete();
+                continue;
+            }
+
+            loadChunkAsync(world, chunkX, chunkZ).whenComplete((chunk, error) -> runSync(() -> {
+                if (next.isWanted()) {
+                    next.player.teleport(next.location);
+                }
+                next.batch.complete();
+            }));
+        }
+
+        if (queue.isEmpty()) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private CompletableFuture<?> loadChunkAsync(World world, int chunkX, int chunkZ) {
+        try {
+            return (CompletableFuture<?>) getChunkAtAsync.invoke(world, chunkX, chunkZ);
+        } catch (ReflectiveOperationException e) {
+            // Teleporting still works, the chunk is just loaded synchronously
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void runSync(Runnable action) {
+        if (Bukkit.isPrimaryThread()) {
+            action.run();
+        } else if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, action);
+        }
+    }
+
+    private static long chunkKey(Location location) {
+        return CompactArena.chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private static class PendingTeleport {
+
+        private final Player player;
+        private final Location location;
+        private final Batch batch;
+
+        private PendingTeleport(Player player, Location location, Batch batch) {
+            this.player = player;
+            this.location = location;
+            this.batch = batch;
+        }
+
+        private boolean isWanted() {
+            return player.isOnline() && (batch.condition == null || batch.condition.test(player));
+        }
+    }
+
+    private static class Batch {
+
+        private final Predicate<Player> condition;
+        private final Runnable callback;
+        private int remaining;
+
+        private Batch(int size, Predicate<Player> condition, Runnable callback) {
+            this.remaining = size;
+            this.condition = condition;
+            this.callback = callback;
+        }
+
+        private void complete() {
+            if (--remaining == 0 && callback != null) {
+                callback.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.guythatlives.bedwarsg.generator;
+
+import com.guythatlives.bedwarsg.BedwarsG;
+import com.guythatlives.bedwarsg.arena.Arena;
+import com.guythatlives.bedwarsg.arena.BedwarsTeam;
+import com.guythatlives.bedwarsg.game.Game;
+import org.bukkit.Location;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.util.Vector;
+
+import java.util.*;
+
+public class GeneratorEngine extends BukkitRunnable {
+
+    private final BedwarsG plugin;
+    private final Map<String, GeneratorType> types;
+    private final List<GeneratorSet> active;
+    private final Map<Arena, GeneratorSet> byArena;
+    private final Set<UUID> trackedItems;
+    private final int activationChunks;
+    private final boolean creditIdle;
+    private long currentTick;
+
+    public GeneratorEngine(BedwarsG plugin) {
+        this.plugin = plugin;
+        this.types = new HashMap<>();
+        this.active = new ArrayList<>();
+        this.byArena = new HashMap<>();
+        this.trackedItems = new HashSet<>();
+
+        // The radius is checked against whole chunks, round up so nobody inside it is missed
+        int radius = Math.max(0, plugin.getConfigManager().getInt("generator-engine.activation-radius"));
+        this.activationChunks = (radius + 15) >> 4;
+        this.creditIdle = !"drop".equalsIgnoreCase(
+                plugin.getConfigManager().getConfig().getString("generator-engine.idle-policy", "credit"));
+        loadTypes();
+    }
+
+    private void loadTypes() {
+        ConfigurationSection section = plugin.getConfigManager().getConfig().getConfigurationSection("generators");
+        if (section == null) {
+            return;
+        }
+
+        for (String name : section.getKeys(false)) {
+            GeneratorType type = GeneratorType.load(name.toLowerCase(), section.getConfigurationSection(name));
+            if (type == null) {
+                plugin.getLogger().warning("Unknown material for generator type " + name);
+                continue;
+            }
+            types.put(type.getName(), type);
+        }
+    }
+
+    public void start() {
+        runTaskTimer(plugin, 1L, 1L);
+    }
+
+    public GeneratorSet register(Arena arena) {
+        GeneratorSet set = new GeneratorSet(arena);
+
+        // First spawns are precomputed here, after that only the next due generator is ever looked at
+        for (Map.Entry<String, List<Location>> entry : arena.getMap().getGenerators().entrySet()) {
+            GeneratorType type = types.get(entry.getKey().toLowerCase());
+            if (type == null) {
+                continue;
+            }
+
+            for (Location location : entry.getValue()) {
+                Location gameLocation = arena.toGameLocation(location);
+                if (gameLocation != null) {
+                    BedwarsTeam owner = type.isTeamGenerator() ? findOwner(arena, location) : null;
+                    set.add(new ResourceGenerator(type, gameLocation, owner, currentTick + type.getInitialDelayTicks()));
+                }
+            }
+        }
+
+        for (Player player : arena.getPlayers()) {
+            Location location = player.getLocation();
+            if (arena.isInArena(location) && !isOut(arena, player)) {
+                set.getProximity().update(player.getUniqueId(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+            }
+        }
+
+        active.add(set);
+        byArena.put(arena, set);
+        return set;
+    }
+
+    private BedwarsTeam findOwner(Arena arena, Location location) {
+        // Island generators belong to whichever team spawns closest to them
+        String closest = null;
+        double closestDistance = Double.MAX_VALUE;
+        for (Map.Entry<String, Location> entry : arena.getMap().getSpawns().entrySet()) {
+            Location spawn = entry.getValue();
+            double dx = spawn.getX() - location.getX();
+            double dz = spawn.getZ() - location.getZ();
+            double distance = dx * dx + dz * dz;
+            if (distance < closestDistance) {
+                closestDistance = distance;
+                closest = entry.getKey();
+            }
+        }
+        return closest != null ? arena.getTeams().get(closest) : null;
+    }
+
+    public void updatePlayer(Arena arena, Player player, Location location) {
+        GeneratorSet set = byArena.get(arena);
+        if (set == null) {
+            return;
+        }
+
+        if (location != null && arena.isInArena(location) && !isOut(arena, player)) {
+            set.getProximity().update(player.getUniqueId(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        } else {
+            set.getProximity().remove(player.getUniqueId());
+        }
+    }
+
+    private boolean isOut(Arena arena, Player player) {
+        Game game = plugin.getGameManager().getGame(arena);
+        return game != null && game.isOut(player);
+    }
+
+    public void unregister(GeneratorSet set) {
+        active.remove(set);
+        byArena.remove(set.getArena());
+        for (ResourceGenerator generator : set.getGenerators()) {
+            if (generator.getDrop() != null) {
+                trackedItems.remove(generator.getDrop().getUniqueId());
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        currentTick++;
+        int budget = Math.max(1, plugin.getConfigManager().getInt("generator-engine.max-spawns-per-tick"));
+
+        // Start at a different arena each tick so none is always last in line for the budget
+        int count = active.size();
+        for (int i = 0; i < count && budget > 0; i++) {
+            GeneratorSet set = active.get((int) ((currentTick + i) % count));
+            ResourceGenerator generator = set.peek();
+
+            // Anything over budget stays due and is picked up on the next tick
+            while (generator != null && generator.getNextSpawnTick() <= currentTick && budget > 0) {
+                if (isActive(set, generator)) {
+                    spawn(generator, generator.getSkippedSpawns() + 1);
+                    generator.setSkippedSpawns(0);
+                    budget--;
+                } else if (creditIdle && !isAbandoned(generator)) {
+                    // The payout is capped at max-stack anyway, so the credit never needs to grow past it
+                    generator.setSkippedSpawns(Math.min(generator.getType().getMaxStack(), generator.getSkippedSpawns() + 1));
+                }
+                set.reschedule(currentTick + generator.getIntervalTicks());
+                generator = set.peek();
+            }
+        }
+    }
+
+    private boolean isActive(GeneratorSet set, ResourceGenerator generator) {
+        if (isAbandoned(generator)) {
+            return false;
+        }
+
+        Location location = generator.getLocation();
+        return location.getWorld().isChunkLoaded(generator.getChunkX(), generator.getChunkZ())
+                && set.getProximity().hasPlayerNear(generator.getChunkX(), generator.getChunkZ(), activationChunks);
+    }
+
+    private boolean isAbandoned(ResourceGenerator generator) {
+        return generator.getOwner() != null && generator.getOwner().isEliminated();
+    }
+
+    private void spawn(ResourceGenerator generator, int spawns) {
+        GeneratorType type = generator.getType();
+        Item drop = generator.getDrop();
+        // Credited spawns are paid out at once, never past the stack limit
+        int produced = (int) Math.min(type.getMaxStack(), (long) type.getItemsPerSpawn() * spawns);
+
+        // Grow the generator's own stack, a new entity is only dropped once the old one is gone
+        if (drop != null && drop.isValid()) {
+            ItemStack stack = drop.getItemStack();
+            int amount = Math.min(type.getMaxStack(), stack.getAmount() + produced);
+            if (amount != stack.getAmount()) {
+                stack.setAmount(amount);
+                drop.setItemStack(stack);
+            }
+            // The stack is only as old as its last top-up, an unattended generator shouldn't lose what it made
+            drop.setTicksLived(1);
+            return;
+        }
+
+        // Pickups and despawns are untracked by the listener, this catches the rest (hoppers, plugins)
+        if (drop != null) {
+            trackedItems.remove(drop.getUniqueId());
+        }
+
+        Location location = generator.getLocation();
+        Item item = location.getWorld().dropItem(location, new ItemStack(type.getMaterial(), produced));
+        item.setVelocity(new Vector(0, 0, 0));
+        generator.setDrop(item);
+        trackedItems.add(item.getUniqueId());
+    }
+
+    public boolean isTracked(Item item) {
+        return trackedItems.contains(item.getUniqueId());
+    }
+
+    public void untrack(Item item) {
+        trackedItems.remove(item.getUniqueId());
+    }
+
+    public int getActiveCount() {
+        return active.size();
+    }
+}
@@ -0,0 +1,93 @@
+package com.guythatlives.bedwarsg.generator;
+
+import com.guythatlives.bedwarsg.arena.Arena;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class GeneratorSet {
+
+    private final Arena arena;
+    private final ProximityIndex proximity;
+    private ResourceGenerator[] heap;
+    private int size;
+
+    public GeneratorSet(Arena arena) {
+        this.arena = arena;
+        this.proximity = new ProximityIndex();
+        this.heap = new ResourceGenerator[8];
+    }
+
+    public void add(ResourceGenerator generator) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = generator;
+        siftUp(size++);
+    }
+
+    public ResourceGenerator peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    public void reschedule(long nextSpawnTick) {
+        // Only the head is ever due, push it back down to its new place
+        heap[0].setNextSpawnTick(nextSpawnTick);
+        siftDown(0);
+    }
+
+    private void siftUp(int index) {
+        ResourceGenerator generator = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].getNextSpawnTick() <= generator.getNextSpawnTick()) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = generator;
+    }
+
+    private void siftDown(int index) {
+        ResourceGenerator generator = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1].getNextSpawnTick() < heap[child].getNextSpawnTick()) {
+                child++;
+            }
+            if (generator.getNextSpawnTick() <= heap[child].getNextSpawnTick()) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = generator;
+    }
+
+    public void upgrade(String type, int intervalTicks) {
+        // Upgrades apply from the next spawn on, so the heap order stays valid
+        for (int i = 0; i < size; i++) {
+            if (heap[i].getType().getName().equals(type)) {
+                heap[i].setIntervalTicks(intervalTicks);
+            }
+        }
+    }
+
+    public List<ResourceGenerator> getGenerators() {
+        return Arrays.asList(heap).subList(0, size);
+    }
+
+    public ProximityIndex getProximity() {
+        return proximity;
+    }
+
+    public Arena getArena() {
+        return arena;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,82 @@
+package com.guythatlives.bedwarsg.generator;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+
+public class GeneratorType {
+
+    private final String name;
+    private final Material material;
+    private final int initialDelayTicks;
+    private final int intervalTicks;
+    private final int itemsPerSpawn;
+    private final int maxStack;
+    private final boolean teamGenerator;
+
+    public GeneratorType(String name, Material material, int initialDelayTicks, int intervalTicks,
+                         int itemsPerSpawn, int maxStack, boolean teamGenerator) {
+        this.name = name;
+        this.material = material;
+        this.initialDelayTicks = initialDelayTicks;
+        this.intervalTicks = intervalTicks;
+        this.itemsPerSpawn = itemsPerSpawn;
+        this.maxStack = maxStack;
+        this.teamGenerator = teamGenerator;
+    }
+
+    public static GeneratorType load(String name, ConfigurationSection section) {
+        Material material = Material.matchMaterial(section.getString("material", defaultMaterial(name)));
+        if (material == null) {
+            return null;
+        }
+
+        // Rates are configured in seconds, the engine counts ticks
+        return new GeneratorType(
+                name,
+                material,
+                (int) Math.round(section.getDouble("initial-delay", 0) * 20),
+                Math.max(1, (int) Math.round(section.getDouble("spawn-rate", 1) * 20)),
+                Math.max(1, section.getInt("items-per-spawn", 1)),
+                Math.max(1, section.getInt("max-stack", 64)),
+                section.getBoolean("team-generator", true));
+    }
+
+    private static String defaultMaterial(String name) {
+        switch (name) {
+            case "iron":
+                return "IRON_INGOT";
+            case "gold":
+                return "GOLD_INGOT";
+            default:
+                return name.toUpperCase();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Material getMaterial() {
+        return material;
+    }
+
+    public int getInitialDelayTicks() {
+        return initialDelayTicks;
+    }
+
+    public int getIntervalTicks() {
+        return intervalTicks;
+    }
+
+    public int getItemsPerSpawn() {
+        return itemsPerSpawn;
+    }
+
+    public int getMaxStack() {
+        return maxStack;
+    }
+
+    public boolean isTeamGenerator() {
+        return teamGenerator;
+    }
+}
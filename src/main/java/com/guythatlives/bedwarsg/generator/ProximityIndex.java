@@ -0,0 +1,89 @@
+package com.guythatlives.bedwarsg.generator;
+
+import com.guythatlives.bedwarsg.util.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+public class ProximityIndex {
+
+    // An arena holds a handful of players, flat arrays are enough to remember which chunk each one is in
+    private UUID[] players;
+    private long[] playerChunks;
+    private int size;
+    // Players per occupied chunk, what the generators actually look up
+    private final LongIntHashMap chunkCounts;
+
+    public ProximityIndex() {
+        this.players = new UUID[16];
+        this.playerChunks = new long[16];
+        this.chunkCounts = new LongIntHashMap();
+    }
+
+    public void update(UUID uuid, int chunkX, int chunkZ) {
+        long key = chunkKey(chunkX, chunkZ);
+        int index = indexOf(uuid);
+        if (index == -1) {
+            if (size == players.length) {
+                players = Arrays.copyOf(players, size * 2);
+                playerChunks = Arrays.copyOf(playerChunks, size * 2);
+            }
+            index = size++;
+            players[index] = uuid;
+        } else {
+            if (playerChunks[index] == key) {
+                return;
+            }
+            chunkCounts.add(playerChunks[index], -1);
+        }
+
+        playerChunks[index] = key;
+        chunkCounts.add(key, 1);
+    }
+
+    public void remove(UUID uuid) {
+        int index = indexOf(uuid);
+        if (index == -1) {
+            return;
+        }
+
+        chunkCounts.add(playerChunks[index], -1);
+        size--;
+        players[index] = players[size];
+        playerChunks[index] = playerChunks[size];
+        players[size] = null;
+    }
+
+    private int indexOf(UUID uuid) {
+        for (int i = 0; i < size; i++) {
+            if (players[i].equals(uuid)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean hasPlayerNear(int chunkX, int chunkZ, int chunkRadius) {
+        if (chunkCounts.isEmpty()) {
+            return false;
+        }
+
+        // Only occupied chunks are stored, so a lookup per chunk in range is all this costs
+        for (int x = chunkX - chunkRadius; x <= chunkX + chunkRadius; x++) {
+            for (int z = chunkZ - chunkRadius; z <= chunkZ + chunkRadius; z++) {
+                if (chunkCounts.containsKey(chunkKey(x, z))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static long chunkKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+}
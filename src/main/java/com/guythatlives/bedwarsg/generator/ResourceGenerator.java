@@ -0,0 +1,80 @@
+package com.guythatlives.bedwarsg.generator;
+
+import com.guythatlives.bedwarsg.arena.BedwarsTeam;
+import org.bukkit.Location;
+import org.bukkit.entity.Item;
+
+public class ResourceGenerator {
+
+    private final GeneratorType type;
+    private final Location location;
+    private final BedwarsTeam owner;
+    private final int chunkX;
+    private final int chunkZ;
+    private Item drop;
+    private long nextSpawnTick;
+    private int intervalTicks;
+    private int skippedSpawns;
+
+    public ResourceGenerator(GeneratorType type, Location location, BedwarsTeam owner, long firstSpawnTick) {
+        this.type = type;
+        this.location = location;
+        this.owner = owner;
+        this.chunkX = location.getBlockX() >> 4;
+        this.chunkZ = location.getBlockZ() >> 4;
+        this.nextSpawnTick = firstSpawnTick;
+        this.intervalTicks = type.getIntervalTicks();
+    }
+
+    public int getIntervalTicks() {
+        return intervalTicks;
+    }
+
+    public void setIntervalTicks(int intervalTicks) {
+        this.intervalTicks = intervalTicks;
+    }
+
+    public BedwarsTeam getOwner() {
+        return owner;
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkZ() {
+        return chunkZ;
+    }
+
+    public int getSkippedSpawns() {
+        return skippedSpawns;
+    }
+
+    public void setSkippedSpawns(int skippedSpawns) {
+        this.skippedSpawns = skippedSpawns;
+    }
+
+    public Item getDrop() {
+        return drop;
+    }
+
+    public void setDrop(Item drop) {
+        this.drop = drop;
+    }
+
+    public GeneratorType getType() {
+        return type;
+    }
+
+    public Location getLocation() {
+        return location;
+    }
+
+    public long getNextSpawnTick() {
+        return nextSpawnTick;
+    }
+
+    public void setNextSpawnTick(long nextSpawnTick) {
+        this.nextSpawnTick = nextSpawnTick;
+    }
+}
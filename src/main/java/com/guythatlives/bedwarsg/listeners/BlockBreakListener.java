@@ -3,12 +3,19 @@ package com.guythatlives.bedwarsg.listeners;
 import com.guythatlives.bedwarsg.BedwarsG;
 import com.guythatlives.bedwarsg.arena.Arena;
 import com.guythatlives.bedwarsg.arena.ArenaState;
+import com.guythatlives.bedwarsg.arena.BedIndex;
 import com.guythatlives.bedwarsg.arena.BedwarsTeam;
 import com.guythatlives.bedwarsg.game.Game;
+import com.guythatlives.bedwarsg.util.BlockPositions;
+import com.guythatlives.bedwarsg.util.LongHashSet;
+import com.guythatlives.bedwarsg.world.BlockJournal;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.type.Bed;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 
@@ -38,53 +45,77 @@ public class BlockBreakListener implements Listener {
         }
 
         Block block = event.getBlock();
+        long position = BlockPositions.pack(block);
+        boolean isBed = BedIndex.isBed(block.getType());
+
+        BedIndex beds = arena.getBedIndex();
+        BedwarsTeam bedTeam = isBed && beds != null ? beds.getTeam(position) : null;
+        if (bedTeam != null) {
+            handleBedBreak(event, player, arena, bedTeam);
+        } else {
+            // The map itself can't be broken, only what players placed
+            LongHashSet placed = arena.getPlacedBlocks();
+            if (placed != null && !placed.contains(position)) {
+                event.setCancelled(true);
+                return;
+            }
+        }
 
-        // Check if it's a bed (any color)
-        if (block.getType().name().contains("_BED")) {
-            handleBedBreak(event, player, arena, block);
+        BlockJournal journal = arena.getJournal();
+        if (journal != null && !event.isCancelled()) {
+            journal.record(block);
+            // Breaking one half of a bed removes the other half as well
+            if (isBed) {
+                Bed bed = (Bed) block.getBlockData();
+                BlockFace towardsOtherHalf = bed.getPart() == Bed.Part.HEAD ? bed.getFacing().getOppositeFace() : bed.getFacing();
+                journal.record(block.getRelative(towardsOtherHalf));
+            }
         }
     }
 
-    private void handleBedBreak(BlockBreakEvent event, Player player, Arena arena, Block block) {
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBroken(BlockBreakEvent event) {
+        // Forgotten only once the break has gone through, a cancelled one leaves the block breakable
+        Arena arena = plugin.getArenaManager().getPlayerArena(event.getPlayer());
+        LongHashSet placed = arena != null ? arena.getPlacedBlocks() : null;
+        if (placed != null) {
+            placed.remove(BlockPositions.pack(event.getBlock()));
+        }
+    }
+
+    private void handleBedBreak(BlockBreakEvent event, Player player, Arena arena, BedwarsTeam team) {
         BedwarsTeam breakerTeam = arena.getPlayerTeam(player);
 
-        // Find which team's bed was broken
-        for (BedwarsTeam team : arena.getTeams().values()) {
-            org.bukkit.Location bedLoc = arena.getMap().getBed(team.getColor());
-            if (bedLoc != null && bedLoc.getBlock().getLocation().equals(block.getLocation())) {
-                // Can't break own bed
-                if (team.equals(breakerTeam)) {
-                    event.setCancelled(true);
-                    player.sendMessage(plugin.getConfigManager().getPrefix() + "§cYou can't break your own bed!");
-                    return;
-                }
-
-                // Break the bed
-                team.setBedAlive(false);
-                Game game = plugin.getGameManager().getGame(arena);
-                if (game != null) {
-                    game.addBedDestroyed(player);
-                }
-
-                // Announce
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("player", player.getName());
-                placeholders.put("team", team.getColor());
-                String message = plugin.getConfigManager().getMessage("game.enemy-bed-destroyed", placeholders);
-
-                for (Player p : arena.getPlayers()) {
-                    p.sendMessage(message);
-                }
-
-                // Send message to team whose bed was destroyed
-                message = plugin.getConfigManager().getMessage("game.bed-destroyed");
-                for (java.util.UUID uuid : team.getPlayers()) {
-                    Player teamPlayer = plugin.getServer().getPlayer(uuid);
-                    if (teamPlayer != null) {
-                        teamPlayer.sendMessage(message);
-                    }
-                }
-                return;
+        // Can't break own bed
+        if (team.equals(breakerTeam)) {
+            event.setCancelled(true);
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cYou can't break your own bed!");
+            return;
+        }
+
+        // Break the bed
+        team.setBedAlive(false);
+        Game game = plugin.getGameManager().getGame(arena);
+        if (game != null) {
+            game.addBedDestroyed(player);
+        }
+
+        // Announce
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("player", player.getName());
+        placeholders.put("team", team.getColor());
+        String message = plugin.getConfigManager().getMessage("game.enemy-bed-destroyed", placeholders);
+
+        for (Player p : arena.getPlayers()) {
+            p.sendMessage(message);
+        }
+
+        // Send message to team whose bed was destroyed
+        message = plugin.getConfigManager().getMessage("game.bed-destroyed");
+        for (java.util.UUID uuid : team.getPlayers()) {
+            Player teamPlayer = plugin.getServer().getPlayer(uuid);
+            if (teamPlayer != null) {
+                teamPlayer.sendMessage(message);
             }
         }
     }
@@ -0,0 +1,68 @@
+package com.guythatlives.bedwarsg.listeners;
+
+import com.guythatlives.bedwarsg.BedwarsG;
+import com.guythatlives.bedwarsg.arena.Arena;
+import com.guythatlives.bedwarsg.world.BlockJournal;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockIgniteEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+
+/**
+ * Journals the blocks that change without being placed or broken: buckets, flowing liquids and fire. Without it
+ * journal and shared world resets would hand water, lava and burnt out blocks to the next game.
+ */
+public class BlockChangeListener implements Listener {
+
+    private final BedwarsG plugin;
+
+    public BlockChangeListener(BedwarsG plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketEmpty(PlayerBucketEmptyEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketFill(PlayerBucketFillEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLiquidFlow(BlockFromToEvent event) {
+        record(event.getToBlock());
+    }
+
+    // Covers fire spreading too, along with cobblestone and obsidian forming where lava meets water
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockIgnite(BlockIgniteEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        record(event.getBlock());
+    }
+
+    private void record(Block block) {
+        // Liquids flow constantly, the arena lookup is cheap and the journal ignores positions it already has
+        Arena arena = plugin.getArenaManager().getArenaAt(block.getLocation());
+        BlockJournal journal = arena != null ? arena.getJournal() : null;
+        if (journal != null) {
+            journal.record(block);
+        }
+    }
+}
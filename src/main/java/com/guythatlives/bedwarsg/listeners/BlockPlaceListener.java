@@ -3,9 +3,15 @@ package com.guythatlives.bedwarsg.listeners;
 import com.guythatlives.bedwarsg.BedwarsG;
 import com.guythatlives.bedwarsg.arena.Arena;
 import com.guythatlives.bedwarsg.arena.ArenaState;
+import com.guythatlives.bedwarsg.util.BlockPositions;
+import com.guythatlives.bedwarsg.util.LongHashSet;
+import com.guythatlives.bedwarsg.world.BlockJournal;
+import org.bukkit.block.BlockState;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockMultiPlaceEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 
 public class BlockPlaceListener implements Listener {
@@ -27,6 +33,37 @@ public class BlockPlaceListener implements Listener {
 
         if (arena.getState() != ArenaState.RUNNING) {
             event.setCancelled(true);
+            return;
+        }
+
+        // Remember what was here before so the arena can be rolled back after the game
+        BlockJournal journal = arena.getJournal();
+        if (journal != null) {
+            if (event instanceof BlockMultiPlaceEvent) {
+                for (BlockState replaced : ((BlockMultiPlaceEvent) event).getReplacedBlockStates()) {
+                    journal.record(BlockPositions.pack(replaced.getX(), replaced.getY(), replaced.getZ()), replaced.getBlockData());
+                }
+            } else {
+                journal.record(BlockPositions.pack(event.getBlock()), event.getBlockReplacedState().getBlockData());
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlaced(BlockPlaceEvent event) {
+        Arena arena = plugin.getArenaManager().getPlayerArena(event.getPlayer());
+        LongHashSet placed = arena != null ? arena.getPlacedBlocks() : null;
+        if (placed == null) {
+            return;
+        }
+
+        // Only blocks players placed may be broken again, and only placements that went through count
+        if (event instanceof BlockMultiPlaceEvent) {
+            for (BlockState replaced : ((BlockMultiPlaceEvent) event).getReplacedBlockStates()) {
+                placed.add(BlockPositions.pack(replaced.getX(), replaced.getY(), replaced.getZ()));
+            }
+        } else {
+            placed.add(BlockPositions.pack(event.getBlock()));
         }
     }
 }
@@ -0,0 +1,80 @@
+package com.guythatlives.bedwarsg.listeners;
+
+import com.guythatlives.bedwarsg.BedwarsG;
+import com.guythatlives.bedwarsg.arena.Arena;
+import com.guythatlives.bedwarsg.util.BlockPositions;
+import com.guythatlives.bedwarsg.util.LongHashSet;
+import com.guythatlives.bedwarsg.world.BlockJournal;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+
+import java.util.Iterator;
+import java.util.List;
+
+public class ExplosionListener implements Listener {
+
+    private final BedwarsG plugin;
+
+    public ExplosionListener(BedwarsG plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onEntityExplodeFilter(EntityExplodeEvent event) {
+        keepPlacedBlocks(event.getLocation(), event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockExplodeFilter(BlockExplodeEvent event) {
+        keepPlacedBlocks(event.getBlock().getLocation(), event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        recordBlocks(event.getLocation(), event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        recordBlocks(event.getBlock().getLocation(), event.blockList());
+    }
+
+    private void keepPlacedBlocks(Location location, List<Block> blocks) {
+        Arena arena = plugin.getArenaManager().getArenaAt(location);
+        LongHashSet placed = arena != null ? arena.getPlacedBlocks() : null;
+        if (placed == null) {
+            return;
+        }
+
+        // Explosions only take out what players built, the map stays intact
+        Iterator<Block> iterator = blocks.iterator();
+        while (iterator.hasNext()) {
+            if (!placed.contains(BlockPositions.pack(iterator.next()))) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void recordBlocks(Location location, List<Block> blocks) {
+        Arena arena = plugin.getArenaManager().getArenaAt(location);
+        if (arena == null) {
+            return;
+        }
+
+        BlockJournal journal = arena.getJournal();
+        LongHashSet placed = arena.getPlacedBlocks();
+        for (Block block : blocks) {
+            if (journal != null) {
+                journal.record(block);
+            }
+            if (placed != null) {
+                placed.remove(BlockPositions.pack(block));
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.guythatlives.bedwarsg.listeners;
+
+import com.guythatlives.bedwarsg.BedwarsG;
+import com.guythatlives.bedwarsg.arena.Arena;
+import com.guythatlives.bedwarsg.arena.ArenaState;
+import com.guythatlives.bedwarsg.generator.GeneratorEngine;
+import org.bukkit.Location;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.entity.ItemDespawnEvent;
+import org.bukkit.event.entity.ItemMergeEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+public class GeneratorListener implements Listener {
+
+    private final BedwarsG plugin;
+
+    public GeneratorListener(BedwarsG plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onItemMerge(ItemMergeEvent event) {
+        // Generator stacks are counted by the engine, vanilla merging would move items in or out of them
+        GeneratorEngine engine = plugin.getGameManager().getGeneratorEngine();
+        if (engine.isTracked(event.getEntity()) || engine.isTracked(event.getTarget())) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemPickup(EntityPickupItemEvent event) {
+        // A partial pickup leaves the rest of the stack on the ground, still the generator's
+        if (event.getRemaining() == 0) {
+            plugin.getGameManager().getGeneratorEngine().untrack(event.getItem());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemDespawn(ItemDespawnEvent event) {
+        plugin.getGameManager().getGeneratorEngine().untrack(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        // Generators only care which chunk a player is in, most moves never cross one
+        if (to == null || (from.getWorld() == to.getWorld()
+                && from.getBlockX() >> 4 == to.getBlockX() >> 4
+                && from.getBlockZ() >> 4 == to.getBlockZ() >> 4)) {
+            return;
+        }
+        updatePlayer(event, to);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        updatePlayer(event, event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.LOW)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        // Runs before the arena forgets the player
+        Arena arena = plugin.getArenaManager().getPlayerArena(event.getPlayer());
+        if (arena != null) {
+            plugin.getGameManager().getGeneratorEngine().updatePlayer(arena, event.getPlayer(), null);
+        }
+    }
+
+    private void updatePlayer(PlayerMoveEvent event, Location to) {
+        Arena arena = plugin.getArenaManager().getPlayerArena(event.getPlayer());
+        if (arena != null && arena.getState() == ArenaState.RUNNING) {
+            plugin.getGameManager().getGeneratorEngine().updatePlayer(arena, event.getPlayer(), to);
+        }
+    }
+}
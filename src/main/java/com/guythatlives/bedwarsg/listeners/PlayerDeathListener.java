@@ -9,7 +9,6 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.PlayerDeathEvent;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -74,60 +73,11 @@ public class PlayerDeathListener implements Listener {
 
         // Handle respawn or elimination
         if (canRespawn) {
-            handleRespawn(player, arena, team);
-        } else {
-            handleElimination(player, arena, team);
-        }
-    }
-
-    private void handleRespawn(Player player, Arena arena, BedwarsTeam team) {
-        int respawnTime = plugin.getConfigManager().getInt("respawn.time");
-
-        new BukkitRunnable() {
-            int timeLeft = respawnTime;
-
-            @Override
-            public void run() {
-                if (timeLeft <= 0) {
-                    // Respawn player
-                    org.bukkit.Location spawn = arena.getMap().getSpawn(team.getColor());
-                    if (spawn != null) {
-                        player.spigot().respawn();
-                        player.teleport(spawn);
-                    }
-                    cancel();
-                    return;
-                }
-
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("time", String.valueOf(timeLeft));
-                player.sendMessage(plugin.getConfigManager().getMessage("game.respawn-in", placeholders));
-                timeLeft--;
-            }
-        }.runTaskTimer(plugin, 0L, 20L);
-    }
-
-    private void handleElimination(Player player, Arena arena, BedwarsTeam team) {
-        // Check if team is eliminated
-        boolean hasAlivePlayers = false;
-        for (java.util.UUID uuid : team.getPlayers()) {
-            Player p = plugin.getServer().getPlayer(uuid);
-            if (p != null && p.isOnline() && !p.equals(player)) {
-                hasAlivePlayers = true;
-                break;
-            }
-        }
-
-        if (!hasAlivePlayers) {
-            team.setEliminated(true);
-
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("team", team.getDisplayName());
-            String message = plugin.getConfigManager().getMessage("game.elimination", placeholders);
-
-            for (Player p : arena.getPlayers()) {
-                p.sendMessage(message);
+            if (game != null) {
+                game.scheduleRespawn(player);
             }
+        } else if (game != null) {
+            game.eliminatePlayer(player);
         }
     }
 }
@@ -25,6 +25,8 @@ public class PlayerQuitListener implements Listener {
             arena.removePlayer(player);
         }
 
+        plugin.getGameManager().getAdmissionController().leaveQueue(player);
+
         // Save and unload stats
         plugin.getStatsManager().unloadStats(player);
     }
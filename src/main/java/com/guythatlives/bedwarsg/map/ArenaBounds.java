@@ -0,0 +1,74 @@
+package com.guythatlives.bedwarsg.map;
+
+import org.bukkit.Location;
+
+import java.util.Collection;
+
+public class ArenaBounds {
+
+    private final int minX;
+    private final int minZ;
+    private final int maxX;
+    private final int maxZ;
+
+    public ArenaBounds(int x1, int z1, int x2, int z2) {
+        this.minX = Math.min(x1, x2);
+        this.minZ = Math.min(z1, z2);
+        this.maxX = Math.max(x1, x2);
+        this.maxZ = Math.max(z1, z2);
+    }
+
+    public static ArenaBounds around(Collection<Location> locations, int margin) {
+        int minX = Integer.MAX_VALUE;
+        int minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxZ = Integer.MIN_VALUE;
+
+        for (Location location : locations) {
+            minX = Math.min(minX, location.getBlockX());
+            minZ = Math.min(minZ, location.getBlockZ());
+            maxX = Math.max(maxX, location.getBlockX());
+            maxZ = Math.max(maxZ, location.getBlockZ());
+        }
+
+        if (minX > maxX) {
+            return null;
+        }
+        return new ArenaBounds(minX - margin, minZ - margin, maxX + margin, maxZ + margin);
+    }
+
+    public boolean contains(int x, int z) {
+        return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+    }
+
+    public boolean containsChunk(int chunkX, int chunkZ) {
+        return (chunkX << 4) + 15 >= minX && (chunkX << 4) <= maxX
+                && (chunkZ << 4) + 15 >= minZ && (chunkZ << 4) <= maxZ;
+    }
+
+    public boolean intersectsRegion(int regionX, int regionZ) {
+        return (regionX << 9) + 511 >= minX && (regionX << 9) <= maxX
+                && (regionZ << 9) + 511 >= minZ && (regionZ << 9) <= maxZ;
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinZ() {
+        return minZ;
+    }
+
+    public int getMaxX() {
+        return maxX;
+    }
+
+    public int getMaxZ() {
+        return maxZ;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + minX + ", " + minZ + ") -> (" + maxX + ", " + maxZ + ")";
+    }
+}
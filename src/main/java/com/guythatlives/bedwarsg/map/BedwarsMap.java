@@ -2,7 +2,9 @@ package com.guythatlives.bedwarsg.map;
 
 import org.bukkit.Location;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class BedwarsMap {
@@ -13,10 +15,13 @@ public class BedwarsMap {
     private int minPlayers;
     private int maxPlayers;
     private boolean enabled;
+    private int poolSize;
+    private ArenaBounds bounds;
+    private String resetMode;
 
     private Map<String, Location> spawns;
     private Map<String, Location> beds;
-    private Map<String, Location> generators;
+    private Map<String, List<Location>> generators;
 
     public BedwarsMap(String name) {
         this.name = name;
@@ -24,6 +29,7 @@ public class BedwarsMap {
         this.minPlayers = 2;
         this.maxPlayers = 8;
         this.enabled = false;
+        this.poolSize = -1;
         this.spawns = new HashMap<>();
         this.beds = new HashMap<>();
         this.generators = new HashMap<>();
@@ -73,6 +79,45 @@ public class BedwarsMap {
         this.enabled = enabled;
     }
 
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public String getResetMode() {
+        return resetMode;
+    }
+
+    public void setResetMode(String resetMode) {
+        this.resetMode = resetMode;
+    }
+
+    public ArenaBounds getBounds() {
+        return bounds;
+    }
+
+    public void setBounds(ArenaBounds bounds) {
+        this.bounds = bounds;
+    }
+
+    public ArenaBounds getExportBounds(int margin) {
+        // Explicit bounds win, otherwise cover every spawn, bed and generator plus a margin
+        if (bounds != null) {
+            return bounds;
+        }
+
+        List<Location> locations = new ArrayList<>();
+        locations.addAll(spawns.values());
+        locations.addAll(beds.values());
+        for (List<Location> typeGenerators : generators.values()) {
+            locations.addAll(typeGenerators);
+        }
+        return ArenaBounds.around(locations, margin);
+    }
+
     public void addSpawn(String team, Location location) {
         spawns.put(team, location);
     }
@@ -82,7 +127,7 @@ public class BedwarsMap {
     }
 
     public void addGenerator(String type, Location location) {
-        generators.put(type, location);
+        generators.computeIfAbsent(type, key -> new ArrayList<>()).add(location);
     }
 
     public Map<String, Location> getSpawns() {
@@ -93,7 +138,7 @@ public class BedwarsMap {
         return beds;
     }
 
-    public Map<String, Location> getGenerators() {
+    public Map<String, List<Location>> getGenerators() {
         return generators;
     }
 
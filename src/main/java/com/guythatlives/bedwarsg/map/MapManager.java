@@ -9,6 +9,7 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class MapManager {
@@ -48,6 +49,15 @@ public class MapManager {
         map.setWorld(config.getString("world"));
         map.setMinPlayers(config.getInt("min-players", 2));
         map.setMaxPlayers(config.getInt("max-players", 8));
+        map.setPoolSize(config.getInt("pool-size", -1));
+        map.setResetMode(config.getString("reset-mode"));
+
+        // Load explicit arena bounds
+        if (config.contains("bounds")) {
+            map.setBounds(new ArenaBounds(
+                config.getInt("bounds.min-x"), config.getInt("bounds.min-z"),
+                config.getInt("bounds.max-x"), config.getInt("bounds.max-z")));
+        }
 
         // Load spawn points
         if (config.contains("spawns")) {
@@ -93,6 +103,20 @@ public class MapManager {
         config.set("min-players", map.getMinPlayers());
         config.set("max-players", map.getMaxPlayers());
         config.set("enabled", map.isEnabled());
+        if (map.getPoolSize() >= 0) {
+            config.set("pool-size", map.getPoolSize());
+        }
+        if (map.getResetMode() != null) {
+            config.set("reset-mode", map.getResetMode());
+        }
+
+        // Save explicit arena bounds
+        if (map.getBounds() != null) {
+            config.set("bounds.min-x", map.getBounds().getMinX());
+            config.set("bounds.min-z", map.getBounds().getMinZ());
+            config.set("bounds.max-x", map.getBounds().getMaxX());
+            config.set("bounds.max-z", map.getBounds().getMaxZ());
+        }
 
         // Save spawn points
         for (Map.Entry<String, Location> entry : map.getSpawns().entrySet()) {
@@ -106,10 +130,12 @@ public class MapManager {
 
         // Save generators
         int index = 0;
-        for (Map.Entry<String, Location> entry : map.getGenerators().entrySet()) {
-            config.set("generators." + index + ".type", entry.getKey());
-            serializeLocation(config, "generators." + index + ".location", entry.getValue());
-            index++;
+        for (Map.Entry<String, List<Location>> entry : map.getGenerators().entrySet()) {
+            for (Location location : entry.getValue()) {
+                config.set("generators." + index + ".type", entry.getKey());
+                serializeLocation(config, "generators." + index + ".location", location);
+                index++;
+            }
         }
 
         try {
@@ -1,16 +1,19 @@
 package com.guythatlives.bedwarsg.party;
 
 import com.guythatlives.bedwarsg.BedwarsG;
+import com.guythatlives.bedwarsg.task.TimerHandle;
 import org.bukkit.entity.Player;
 
 import java.util.*;
 
 public class PartyManager {
 
+    private static final long INVITE_EXPIRY_TICKS = 60 * 20L;
+
     private final BedwarsG plugin;
     private Map<UUID, Party> parties;
     private Map<UUID, Party> playerParties;
-    private Map<UUID, Map<UUID, Long>> partyInvites;
+    private Map<UUID, Map<UUID, TimerHandle>> partyInvites;
 
     public PartyManager(BedwarsG plugin) {
         this.plugin = plugin;
@@ -61,38 +64,47 @@ public class PartyManager {
     }
 
     public void sendInvite(Player from, Player to) {
-        partyInvites.computeIfAbsent(to.getUniqueId(), k -> new HashMap<>())
-                .put(from.getUniqueId(), System.currentTimeMillis());
-    }
-
-    public boolean hasInvite(Player to, Player from) {
-        Map<UUID, Long> invites = partyInvites.get(to.getUniqueId());
-        if (invites == null) {
-            return false;
-        }
-
-        Long inviteTime = invites.get(from.getUniqueId());
-        if (inviteTime == null) {
-            return false;
-        }
+        UUID toId = to.getUniqueId();
+        UUID fromId = from.getUniqueId();
 
         // Invites expire after 60 seconds
-        if (System.currentTimeMillis() - inviteTime > 60000) {
-            invites.remove(from.getUniqueId());
-            return false;
+        TimerHandle expiry = plugin.getTimerService().schedule(INVITE_EXPIRY_TICKS, () -> {
+            Map<UUID, TimerHandle> invites = partyInvites.get(toId);
+            if (invites != null) {
+                invites.remove(fromId);
+                if (invites.isEmpty()) {
+                    partyInvites.remove(toId);
+                }
+            }
+        });
+
+        TimerHandle previous = partyInvites.computeIfAbsent(toId, k -> new HashMap<>()).put(fromId, expiry);
+        if (previous != null) {
+            previous.cancel();
         }
+    }
 
-        return true;
+    public boolean hasInvite(Player to, Player from) {
+        Map<UUID, TimerHandle> invites = partyInvites.get(to.getUniqueId());
+        return invites != null && invites.containsKey(from.getUniqueId());
     }
 
     public void removeInvite(Player to, Player from) {
-        Map<UUID, Long> invites = partyInvites.get(to.getUniqueId());
+        Map<UUID, TimerHandle> invites = partyInvites.get(to.getUniqueId());
         if (invites != null) {
-            invites.remove(from.getUniqueId());
+            TimerHandle expiry = invites.remove(from.getUniqueId());
+            if (expiry != null) {
+                expiry.cancel();
+            }
         }
     }
 
     public void clearInvites(Player player) {
-        partyInvites.remove(player.getUniqueId());
+        Map<UUID, TimerHandle> invites = partyInvites.remove(player.getUniqueId());
+        if (invites != null) {
+            for (TimerHandle expiry : invites.values()) {
+                expiry.cancel();
+            }
+        }
     }
 }
@@ -0,0 +1,33 @@
+package com.guythatlives.bedwarsg.task;
+
+public class TimerHandle {
+
+    final long deadline;
+    final Runnable action;
+    TimingWheel wheel;
+    TimerHandle prev;
+    TimerHandle next;
+    int level;
+    int slot;
+    private boolean cancelled;
+
+    TimerHandle(long deadline, Runnable action) {
+        this.deadline = deadline;
+        this.action = action;
+    }
+
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+
+        cancelled = true;
+        if (wheel != null) {
+            wheel.remove(this);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
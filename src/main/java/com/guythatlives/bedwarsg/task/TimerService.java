@@ -0,0 +1,42 @@
+package com.guythatlives.bedwarsg.task;
+
+import com.guythatlives.bedwarsg.BedwarsG;
+import org.bukkit.scheduler.BukkitRunnable;
+
+public class TimerService {
+
+    private final BedwarsG plugin;
+    private final TimingWheel wheel;
+    private BukkitRunnable task;
+
+    public TimerService(BedwarsG plugin) {
+        this.plugin = plugin;
+        this.wheel = new TimingWheel(plugin.getLogger());
+    }
+
+    public void start() {
+        // One scheduler task for every delayed action in the plugin
+        task = new BukkitRunnable() {
+            @Override
+            public void run() {
+                wheel.tick();
+            }
+        };
+        task.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    public TimerHandle schedule(long delayTicks, Runnable action) {
+        return wheel.schedule(delayTicks, action);
+    }
+
+    public int getPendingCount() {
+        return wheel.size();
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.guythatlives.bedwarsg.task;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    // Timers further out than the top level can reach wait here until it wraps
+    private static final int OVERFLOW = LEVELS;
+
+    private final Logger logger;
+    private final TimerHandle[][] slots;
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(Logger logger) {
+        this.logger = logger;
+        this.slots = new TimerHandle[LEVELS + 1][SLOTS];
+    }
+
+    public TimerHandle schedule(long delayTicks, Runnable action) {
+        TimerHandle handle = new TimerHandle(currentTick + Math.max(1, delayTicks), action);
+        insert(handle);
+        return handle;
+    }
+
+    public void tick() {
+        currentTick++;
+
+        // Move timers down from the coarser levels whose slot just came up, highest level first
+        if ((currentTick & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+            cascade(OVERFLOW, 0);
+        }
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                cascade(level, (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            }
+        }
+
+        int slot = (int) currentTick & SLOT_MASK;
+        TimerHandle handle = detach(0, slot);
+        while (handle != null) {
+            TimerHandle next = handle.next;
+            handle.prev = null;
+            handle.next = null;
+            // An earlier action in this slot may have cancelled it
+            if (!handle.isCancelled()) {
+                try {
+                    handle.action.run();
+                } catch (RuntimeException e) {
+                    logger.log(Level.SEVERE, "Timer task failed", e);
+                }
+            }
+            handle = next;
+        }
+    }
+
+    void remove(TimerHandle handle) {
+        if (handle.prev != null) {
+            handle.prev.next = handle.next;
+        } else {
+            slots[handle.level][handle.slot] = handle.next;
+        }
+        if (handle.next != null) {
+            handle.next.prev = handle.prev;
+        }
+
+        handle.prev = null;
+        handle.next = null;
+        handle.wheel = null;
+        size--;
+    }
+
+    private void insert(TimerHandle handle) {
+        // Lowest level whose current window still contains the deadline
+        int level = 0;
+        while (level < LEVELS && (handle.deadline >>> (SLOT_BITS * (level + 1))) != (currentTick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+
+        int slot = level == OVERFLOW ? 0 : (int) (handle.deadline >>> (SLOT_BITS * level)) & SLOT_MASK;
+        handle.level = level;
+        handle.slot = slot;
+        handle.wheel = this;
+        handle.prev = null;
+        handle.next = slots[level][slot];
+        if (handle.next != null) {
+            handle.next.prev = handle;
+        }
+        slots[level][slot] = handle;
+        size++;
+    }
+
+    private void cascade(int level, int slot) {
+        TimerHandle handle = detach(level, slot);
+        while (handle != null) {
+            TimerHandle next = handle.next;
+            if (!handle.isCancelled()) {
+                insert(handle);
+            }
+            handle = next;
+        }
+    }
+
+    private TimerHandle detach(int level, int slot) {
+        TimerHandle head = slots[level][slot];
+        slots[level][slot] = null;
+        for (TimerHandle handle = head; handle != null; handle = handle.next) {
+            handle.wheel = null;
+            size--;
+        }
+        return head;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+}
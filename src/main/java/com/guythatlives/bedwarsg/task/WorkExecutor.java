@@ -0,0 +1,105 @@
+package com.guythatlives.bedwarsg.task;
+
+import com.guythatlives.bedwarsg.BedwarsG;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.logging.Level;
+
+public class WorkExecutor {
+
+    private final BedwarsG plugin;
+    private final Deque<WorkJob> jobs;
+    private final long budgetNanos;
+    private BukkitRunnable task;
+    private long unitsRun;
+
+    public WorkExecutor(BedwarsG plugin) {
+        this.plugin = plugin;
+        this.jobs = new ArrayDeque<>();
+        this.budgetNanos = Math.max(1, plugin.getConfigManager().getInt("work-executor.budget-micros")) * 1000L;
+    }
+
+    public void start() {
+        task = new BukkitRunnable() {
+            @Override
+            public void run() {
+                runFor(budgetNanos);
+            }
+        };
+        task.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    public void submit(WorkJob job) {
+        jobs.addLast(job);
+    }
+
+    private void runFor(long budget) {
+        long deadline = System.nanoTime() + budget;
+
+        // At least one unit runs per tick, the job cut off by the budget goes to the back of the line
+        // so the next tick starts with a different one
+        while (!jobs.isEmpty()) {
+            WorkJob job = jobs.pollFirst();
+            boolean more;
+            do {
+                more = runUnit(job);
+                unitsRun++;
+            } while (more && System.nanoTime() < deadline);
+
+            if (more) {
+                jobs.addLast(job);
+                return;
+            }
+            complete(job);
+            if (System.nanoTime() >= deadline) {
+                return;
+            }
+        }
+    }
+
+    private boolean runUnit(WorkJob job) {
+        try {
+            return job.runUnit();
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Work job failed, dropping the rest of it", e);
+            return false;
+        }
+    }
+
+    private void complete(WorkJob job) {
+        try {
+            job.onComplete();
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Work job failed to complete", e);
+        }
+    }
+
+    public int getQueuedJobs() {
+        return jobs.size();
+    }
+
+    public long getUnitsRun() {
+        return unitsRun;
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+
+        // Stats of the games ended by the shutdown have to be saved now, rollbacks are pointless
+        while (!jobs.isEmpty()) {
+            WorkJob job = jobs.pollFirst();
+            if (!job.runsOnShutdown()) {
+                continue;
+            }
+            while (runUnit(job)) {
+                unitsRun++;
+            }
+            complete(job);
+        }
+    }
+}
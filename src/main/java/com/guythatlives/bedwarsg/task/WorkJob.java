@@ -0,0 +1,22 @@
+package com.guythatlives.bedwarsg.task;
+
+public interface WorkJob {
+
+    /**
+     * Runs one small unit of work.
+     *
+     * @return false once the job has nothing left to do
+     */
+    boolean runUnit();
+
+    default void onComplete() {
+    }
+
+    /**
+     * Whether the job still has to run to completion when the plugin shuts down, jobs that
+     * only tidy up worlds about to be deleted are dropped instead.
+     */
+    default boolean runsOnShutdown() {
+        return false;
+    }
+}
@@ -0,0 +1,144 @@
+package com.guythatlives.bedwarsg.util;
+
+public class LongIntHashMap {
+
+    private static final int INITIAL_CAPACITY = 16;
+    // Same table layout as LongHashSet, at most three quarters full
+    private static final float LOAD_FACTOR = 0.75f;
+
+    // 0 marks a free key slot, so the key 0 keeps its value on the side
+    private long[] keys;
+    private int[] values;
+    private boolean containsZero;
+    private int zeroValue;
+    private int size;
+    private int resizeAt;
+
+    public LongIntHashMap() {
+        this.keys = new long[INITIAL_CAPACITY];
+        this.values = new int[INITIAL_CAPACITY];
+        this.resizeAt = (int) (INITIAL_CAPACITY * LOAD_FACTOR);
+    }
+
+    public int get(long key) {
+        if (key == 0) {
+            return containsZero ? zeroValue : 0;
+        }
+
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? containsZero : find(key) >= 0;
+    }
+
+    /**
+     * Adds delta to the value of the key, a missing key counts as 0. Keys whose value drops to 0 or below are removed.
+     */
+    public int add(long key, int delta) {
+        if (key == 0) {
+            int value = (containsZero ? zeroValue : 0) + delta;
+            if (value <= 0) {
+                if (containsZero) {
+                    containsZero = false;
+                    size--;
+                }
+                return 0;
+            }
+            if (!containsZero) {
+                containsZero = true;
+                size++;
+            }
+            zeroValue = value;
+            return value;
+        }
+
+        int slot = find(key);
+        if (slot >= 0) {
+            int value = values[slot] + delta;
+            if (value <= 0) {
+                removeSlot(slot);
+                return 0;
+            }
+            values[slot] = value;
+            return value;
+        }
+
+        if (delta <= 0) {
+            return 0;
+        }
+
+        int mask = keys.length - 1;
+        slot = LongHashSet.mix(key) & mask;
+        while (keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > resizeAt) {
+            grow();
+        }
+        return delta;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = LongHashSet.mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void removeSlot(int slot) {
+        // Shift later entries of the probe chain back instead of leaving tombstones behind
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            int home = LongHashSet.mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        size--;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        resizeAt = (int) (keys.length * LOAD_FACTOR);
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) {
+                continue;
+            }
+            int slot = LongHashSet.mix(oldKeys[i]) & mask;
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
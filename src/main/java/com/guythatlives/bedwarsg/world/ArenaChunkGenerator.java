@@ -0,0 +1,45 @@
+package com.guythatlives.bedwarsg.world;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Random;
+
+public class ArenaChunkGenerator extends VoidChunkGenerator {
+
+    private final CompactArena arena;
+    private final InstanceGrid grid;
+
+    public ArenaChunkGenerator(CompactArena arena, boolean structures, boolean decorations) {
+        this(arena, null, structures, decorations);
+    }
+
+    public ArenaChunkGenerator(CompactArena arena, InstanceGrid grid, boolean structures, boolean decorations) {
+        super(structures, decorations);
+        this.arena = arena;
+        this.grid = grid;
+    }
+
+    @Override
+    public ChunkData generateChunkData(World world, Random random, int chunkX, int chunkZ, BiomeGrid biome) {
+        // Chunks inside the arena come straight from memory, everything else stays empty
+        ChunkData data = createChunkData(world);
+        if (grid == null) {
+            arena.fill(chunkX, chunkZ, data);
+            return data;
+        }
+
+        // Shared worlds repeat the arena once per grid cell
+        int slot = grid.getSlot(chunkX, chunkZ);
+        if (slot >= 0) {
+            arena.fill(chunkX - grid.getOffsetChunkX(slot), chunkZ - grid.getOffsetChunkZ(slot), data);
+        }
+        return data;
+    }
+
+    @Override
+    public Location getFixedSpawnLocation(World world, Random random) {
+        // Without a fixed spawn the server probes random columns and generates chunks to find one
+        return new Location(world, arena.getCenterBlockX(), 100, arena.getCenterBlockZ());
+    }
+}
@@ -0,0 +1,40 @@
+package com.guythatlives.bedwarsg.world;
+
+import com.guythatlives.bedwarsg.map.ArenaBounds;
+
+public class ArenaInstance {
+
+    private final String worldName;
+    private final int slot;
+    private final int offsetX;
+    private final int offsetZ;
+    private final ArenaBounds bounds;
+
+    public ArenaInstance(String worldName, int slot, int offsetX, int offsetZ, ArenaBounds bounds) {
+        this.worldName = worldName;
+        this.slot = slot;
+        this.offsetX = offsetX;
+        this.offsetZ = offsetZ;
+        this.bounds = bounds;
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public int getOffsetX() {
+        return offsetX;
+    }
+
+    public int getOffsetZ() {
+        return offsetZ;
+    }
+
+    public ArenaBounds getBounds() {
+        return bounds;
+    }
+}
@@ -0,0 +1,62 @@
+package com.guythatlives.bedwarsg.world;
+
+import com.guythatlives.bedwarsg.util.BlockPositions;
+import com.guythatlives.bedwarsg.util.LongHashSet;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+
+import java.util.Arrays;
+
+public class BlockJournal {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final LongHashSet recorded;
+    private long[] positions;
+    private BlockData[] originals;
+    private int size;
+
+    public BlockJournal() {
+        this.recorded = new LongHashSet();
+        this.positions = new long[INITIAL_CAPACITY];
+        this.originals = new BlockData[INITIAL_CAPACITY];
+    }
+
+    public void record(Block block) {
+        record(BlockPositions.pack(block), block.getBlockData());
+    }
+
+    public void record(long position, BlockData original) {
+        // Only the first change to a position matters, that is the state the map started with
+        if (!recorded.add(position)) {
+            return;
+        }
+
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+            originals = Arrays.copyOf(originals, size * 2);
+        }
+
+        positions[size] = position;
+        originals[size++] = original;
+    }
+
+    public boolean contains(long position) {
+        return recorded.contains(position);
+    }
+
+    public int restore(World world, int from, int count) {
+        int end = Math.min(size, from + count);
+        for (int i = from; i < end; i++) {
+            long position = positions[i];
+            world.getBlockAt(BlockPositions.unpackX(position), BlockPositions.unpackY(position), BlockPositions.unpackZ(position))
+                    .setBlockData(originals[i], false);
+        }
+        return end;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,68 @@
+package com.guythatlives.bedwarsg.world;
+
+import com.guythatlives.bedwarsg.BedwarsG;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+public class ChunkPreloader {
+
+    private final BedwarsG plugin;
+
+    public ChunkPreloader(BedwarsG plugin) {
+        this.plugin = plugin;
+    }
+
+    public void preload(World world, Collection<Location> points, Consumer<Set<Long>> callback) {
+        int radius = Math.max(0, plugin.getConfigManager().getInt("chunk-preload.radius"));
+        int chunksPerTick = Math.max(1, plugin.getConfigManager().getInt("chunk-preload.chunks-per-tick"));
+
+        // Spawns and beds are often close together, so collect unique chunks first
+        Set<Long> wanted = new LinkedHashSet<>();
+        for (Location point : points) {
+            int centerX = point.getBlockX() >> 4;
+            int centerZ = point.getBlockZ() >> 4;
+            for (int x = centerX - radius; x <= centerX + radius; x++) {
+                for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+                    wanted.add(CompactArena.chunkKey(x, z));
+                }
+            }
+        }
+
+        Iterator<Long> remaining = wanted.iterator();
+        Set<Long> pinned = new HashSet<>();
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                if (Bukkit.getWorld(world.getName()) == null) {
+                    cancel();
+                    callback.accept(pinned);
+                    return;
+                }
+
+                // Adding a ticket loads the chunk and keeps it loaded until the arena releases it
+                for (int i = 0; i < chunksPerTick && remaining.hasNext(); i++) {
+                    long key = remaining.next();
+                    world.addPluginChunkTicket((int) (key >> 32), (int) key, plugin);
+                    pinned.add(key);
+                }
+
+                if (!remaining.hasNext()) {
+                    cancel();
+                    callback.accept(pinned);
+                }
+            }
+        }.runTaskTimer(plugin, 0L, 1L);
+    }
+
+    public void release(World world, Set<Long> pinned) {
+        for (long key : pinned) {
+            world.removePluginChunkTicket((int) (key >> 32), (int) key, plugin);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.guythatlives.bedwarsg.world;
+
+public enum CloneStrategy {
+    // Copy-on-write clone, the filesystem shares blocks until either copy is modified
+    REFLINK,
+    // Template files the server never writes are linked, everything else is copied.
+    // Region, poi and entity files are always written, so this only saves on the small files around them
+    HARDLINK,
+    COPY
+}
@@ -0,0 +1,262 @@
+package com.guythatlives.bedwarsg.world;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.generator.ChunkGenerator;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class CompactArena {
+
+    private static final int MAGIC = 0x42574131; // "BWA1"
+    private static final int VERSION = 1;
+    private static final String AIR = "minecraft:air";
+
+    private final List<String> palette;
+    private final Map<Long, List<Section>> chunks;
+    private BlockData[] resolved;
+
+    private CompactArena() {
+        this.palette = new ArrayList<>();
+        this.chunks = new HashMap<>();
+    }
+
+    public static CompactArena capture(List<ChunkSnapshot> snapshots, int sectionCount) {
+        CompactArena arena = new CompactArena();
+        Map<String, Integer> paletteIds = new HashMap<>();
+
+        for (ChunkSnapshot snapshot : snapshots) {
+            List<Section> sections = new ArrayList<>();
+
+            for (int sectionY = 0; sectionY < sectionCount; sectionY++) {
+                if (snapshot.isSectionEmpty(sectionY)) {
+                    continue;
+                }
+
+                char[] blocks = new char[4096];
+                boolean hasBlocks = false;
+                for (int i = 0; i < 4096; i++) {
+                    String state = snapshot.getBlockData(i & 15, (sectionY << 4) | (i >> 8), (i >> 4) & 15).getAsString();
+                    if (!state.equals(AIR)) {
+                        hasBlocks = true;
+                    }
+
+                    Integer id = paletteIds.get(state);
+                    if (id == null) {
+                        id = arena.palette.size();
+                        arena.palette.add(state);
+                        paletteIds.put(state, id);
+                    }
+                    blocks[i] = (char) id.intValue();
+                }
+
+                // Sections holding nothing but air are left out entirely
+                if (hasBlocks) {
+                    sections.add(new Section(sectionY, blocks));
+                }
+            }
+
+            if (!sections.isEmpty()) {
+                arena.chunks.put(chunkKey(snapshot.getX(), snapshot.getZ()), sections);
+            }
+        }
+
+        return arena;
+    }
+
+    public void write(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(palette.size());
+            for (String state : palette) {
+                out.writeUTF(state);
+            }
+
+            out.writeInt(chunks.size());
+            for (Map.Entry<Long, List<Section>> entry : chunks.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeByte(entry.getValue().size());
+                for (Section section : entry.getValue()) {
+                    section.write(out);
+                }
+            }
+        }
+
+        // Replace the old file in one step so a crash never leaves half an arena behind
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static CompactArena read(Path file) throws IOException {
+        CompactArena arena = new CompactArena();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a compact arena file: " + file);
+            }
+
+            int paletteSize = in.readInt();
+            for (int i = 0; i < paletteSize; i++) {
+                arena.palette.add(in.readUTF());
+            }
+
+            int chunkCount = in.readInt();
+            for (int i = 0; i < chunkCount; i++) {
+                long key = in.readLong();
+                int sectionCount = in.readUnsignedByte();
+                List<Section> sections = new ArrayList<>(sectionCount);
+                for (int j = 0; j < sectionCount; j++) {
+                    sections.add(Section.read(in));
+                }
+                arena.chunks.put(key, sections);
+            }
+        }
+
+        return arena;
+    }
+
+    public void resolveBlockData() {
+        // Parse each block state once on the main thread, chunk generation only reads the array
+        BlockData[] blockData = new BlockData[palette.size()];
+        for (int i = 0; i < blockData.length; i++) {
+            blockData[i] = Bukkit.createBlockData(palette.get(i));
+        }
+        this.resolved = blockData;
+    }
+
+    public boolean fill(int chunkX, int chunkZ, ChunkGenerator.ChunkData data) {
+        List<Section> sections = chunks.get(chunkKey(chunkX, chunkZ));
+        if (sections == null) {
+            return false;
+        }
+
+        for (Section section : sections) {
+            int baseY = section.y << 4;
+            for (int i = 0; i < 4096; i++) {
+                BlockData state = resolved[section.blocks[i]];
+                if (!state.getMaterial().isAir()) {
+                    data.setBlock(i & 15, baseY | (i >> 8), (i >> 4) & 15, state);
+                }
+            }
+        }
+        return true;
+    }
+
+    public int getCenterBlockX() {
+        long sum = 0;
+        for (long key : chunks.keySet()) {
+            sum += (int) (key >> 32);
+        }
+        return chunks.isEmpty() ? 0 : (int) (sum / chunks.size()) * 16 + 8;
+    }
+
+    public int getCenterBlockZ() {
+        long sum = 0;
+        for (long key : chunks.keySet()) {
+            sum += (int) key;
+        }
+        return chunks.isEmpty() ? 0 : (int) (sum / chunks.size()) * 16 + 8;
+    }
+
+    public int getMinChunkX() {
+        int min = Integer.MAX_VALUE;
+        for (long key : chunks.keySet()) {
+            min = Math.min(min, (int) (key >> 32));
+        }
+        return chunks.isEmpty() ? 0 : min;
+    }
+
+    public int getMinChunkZ() {
+        int min = Integer.MAX_VALUE;
+        for (long key : chunks.keySet()) {
+            min = Math.min(min, (int) key);
+        }
+        return chunks.isEmpty() ? 0 : min;
+    }
+
+    public int getChunkSpan() {
+        int maxX = Integer.MIN_VALUE;
+        int maxZ = Integer.MIN_VALUE;
+        for (long key : chunks.keySet()) {
+            maxX = Math.max(maxX, (int) (key >> 32));
+            maxZ = Math.max(maxZ, (int) key);
+        }
+        return chunks.isEmpty() ? 1 : Math.max(maxX - getMinChunkX(), maxZ - getMinChunkZ()) + 1;
+    }
+
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    public int getSectionCount() {
+        int count = 0;
+        for (List<Section> sections : chunks.values()) {
+            count += sections.size();
+        }
+        return count;
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static class Section {
+
+        private final int y;
+        private final char[] blocks;
+
+        private Section(int y, char[] blocks) {
+            this.y = y;
+            this.blocks = blocks;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            // Sections are stored with a local palette so most need only one byte per block
+            Map<Character, Integer> localIds = new LinkedHashMap<>();
+            for (char block : blocks) {
+                localIds.putIfAbsent(block, localIds.size());
+            }
+
+            out.writeByte(y);
+            out.writeShort(localIds.size());
+            for (char block : localIds.keySet()) {
+                out.writeChar(block);
+            }
+
+            boolean wide = localIds.size() > 256;
+            for (char block : blocks) {
+                int localId = localIds.get(block);
+                if (wide) {
+                    out.writeShort(localId);
+                } else {
+                    out.writeByte(localId);
+                }
+            }
+        }
+
+        private static Section read(DataInputStream in) throws IOException {
+            int y = in.readUnsignedByte();
+            char[] localPalette = new char[in.readUnsignedShort()];
+            for (int i = 0; i < localPalette.length; i++) {
+                localPalette[i] = in.readChar();
+            }
+
+            boolean wide = localPalette.length > 256;
+            char[] blocks = new char[4096];
+            for (int i = 0; i < 4096; i++) {
+                blocks[i] = localPalette[wide ? in.readUnsignedShort() : in.readUnsignedByte()];
+            }
+            return new Section(y, blocks);
+        }
+    }
+}
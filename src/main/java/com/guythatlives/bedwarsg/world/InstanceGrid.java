@@ -0,0 +1,50 @@
+package com.guythatlives.bedwarsg.world;
+
+import com.guythatlives.bedwarsg.map.ArenaBounds;
+
+public class InstanceGrid {
+
+    private final int originChunkX;
+    private final int originChunkZ;
+    private final int spacing;
+    private final int columns;
+    private final int capacity;
+
+    public InstanceGrid(int originChunkX, int originChunkZ, int spacing, int capacity) {
+        this.originChunkX = originChunkX;
+        this.originChunkZ = originChunkZ;
+        this.spacing = spacing;
+        this.capacity = capacity;
+        // Keep the grid roughly square so the world stays compact in both directions
+        this.columns = (int) Math.ceil(Math.sqrt(capacity));
+    }
+
+    public int getSlot(int chunkX, int chunkZ) {
+        int column = Math.floorDiv(chunkX - originChunkX, spacing);
+        int row = Math.floorDiv(chunkZ - originChunkZ, spacing);
+        if (column < 0 || row < 0 || column >= columns) {
+            return -1;
+        }
+
+        int slot = row * columns + column;
+        return slot < capacity ? slot : -1;
+    }
+
+    public int getOffsetChunkX(int slot) {
+        return (slot % columns) * spacing;
+    }
+
+    public int getOffsetChunkZ(int slot) {
+        return (slot / columns) * spacing;
+    }
+
+    public ArenaBounds getCellBounds(int slot) {
+        int minX = (originChunkX + getOffsetChunkX(slot)) << 4;
+        int minZ = (originChunkZ + getOffsetChunkZ(slot)) << 4;
+        return new ArenaBounds(minX, minZ, minX + (spacing << 4) - 1, minZ + (spacing << 4) - 1);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,123 @@
+package com.guythatlives.bedwarsg.world;
+
+import com.guythatlives.bedwarsg.map.ArenaBounds;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class RegionPruner {
+
+    private static final int SECTOR_SIZE = 4096;
+    private static final Pattern REGION_FILE = Pattern.compile("r\\.(-?\\d+)\\.(-?\\d+)\\.mca");
+    private static final Pattern OVERSIZED_CHUNK_FILE = Pattern.compile("c\\.(-?\\d+)\\.(-?\\d+)\\.mcc");
+    private static final Set<String> REGION_FOLDERS = new HashSet<>(Arrays.asList("region", "poi", "entities"));
+    private static final Set<String> SKIPPED_FILES = new HashSet<>(Arrays.asList("session.lock", "uid.dat", "level.dat_old"));
+
+    private final ArenaBounds bounds;
+    private final int margin;
+    private final Set<String> excludedFolders;
+
+    public RegionPruner(ArenaBounds bounds, int margin, Collection<String> excludedFolders) {
+        this.bounds = bounds;
+        this.margin = margin;
+        this.excludedFolders = new HashSet<>(excludedFolders);
+    }
+
+    public String getBoundsKey() {
+        return bounds != null ? bounds.toString() : "none";
+    }
+
+    public int getMargin() {
+        return margin;
+    }
+
+    public boolean isExcluded(Path relative) {
+        if (relative.getNameCount() == 0) {
+            return false;
+        }
+
+        String name = relative.getFileName().toString();
+        if (relative.getNameCount() == 1 && (excludedFolders.contains(name) || SKIPPED_FILES.contains(name))) {
+            return true;
+        }
+
+        if (bounds == null || !isRegionFolder(relative.getParent())) {
+            return false;
+        }
+
+        // Whole region and oversized chunk files outside the arena are never copied
+        Matcher region = REGION_FILE.matcher(name);
+        if (region.matches()) {
+            return !bounds.intersectsRegion(Integer.parseInt(region.group(1)), Integer.parseInt(region.group(2)));
+        }
+
+        Matcher chunk = OVERSIZED_CHUNK_FILE.matcher(name);
+        if (chunk.matches()) {
+            return !bounds.containsChunk(Integer.parseInt(chunk.group(1)), Integer.parseInt(chunk.group(2)));
+        }
+        return false;
+    }
+
+    public boolean isPrunable(Path relative) {
+        return bounds != null && isRegionFolder(relative.getParent())
+                && REGION_FILE.matcher(relative.getFileName().toString()).matches();
+    }
+
+    private boolean isRegionFolder(Path folder) {
+        return folder != null && folder.getNameCount() == 1 && REGION_FOLDERS.contains(folder.toString());
+    }
+
+    public byte[] prune(Path relative, Path file) throws IOException {
+        Matcher matcher = REGION_FILE.matcher(relative.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IOException("Not a region file: " + relative);
+        }
+
+        int baseChunkX = Integer.parseInt(matcher.group(1)) << 5;
+        int baseChunkZ = Integer.parseInt(matcher.group(2)) << 5;
+        byte[] source = Files.readAllBytes(file);
+        if (source.length < SECTOR_SIZE * 2) {
+            return source;
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(source);
+        int[] locations = new int[1024];
+        int[] timestamps = new int[1024];
+        int sectors = 2;
+
+        // Keep only chunks inside the bounds, packing their sectors back to back
+        for (int i = 0; i < 1024; i++) {
+            int location = in.getInt(i * 4);
+            int offset = location >>> 8;
+            int count = location & 0xFF;
+            if (count == 0 || (offset + count) * SECTOR_SIZE > source.length
+                    || !bounds.containsChunk(baseChunkX + (i & 31), baseChunkZ + (i >> 5))) {
+                continue;
+            }
+
+            locations[i] = (sectors << 8) | count;
+            timestamps[i] = in.getInt(SECTOR_SIZE + i * 4);
+            sectors += count;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(sectors * SECTOR_SIZE);
+        for (int i = 0; i < 1024; i++) {
+            out.putInt(i * 4, locations[i]);
+            out.putInt(SECTOR_SIZE + i * 4, timestamps[i]);
+
+            if (locations[i] != 0) {
+                int sourceOffset = (in.getInt(i * 4) >>> 8) * SECTOR_SIZE;
+                int targetOffset = (locations[i] >>> 8) * SECTOR_SIZE;
+                int length = (locations[i] & 0xFF) * SECTOR_SIZE;
+                System.arraycopy(source, sourceOffset, out.array(), targetOffset, length);
+            }
+        }
+
+        return sectors == 2 ? null : out.array();
+    }
+}
@@ -0,0 +1,43 @@
+package com.guythatlives.bedwarsg.world;
+
+import java.util.BitSet;
+
+public class SharedWorld {
+
+    private final String worldName;
+    private final InstanceGrid grid;
+    private final BitSet usedSlots;
+
+    public SharedWorld(String worldName, InstanceGrid grid) {
+        this.worldName = worldName;
+        this.grid = grid;
+        this.usedSlots = new BitSet(grid.getCapacity());
+    }
+
+    public ArenaInstance claimInstance() {
+        int slot = usedSlots.nextClearBit(0);
+        if (slot >= grid.getCapacity()) {
+            return null;
+        }
+
+        usedSlots.set(slot);
+        return new ArenaInstance(worldName, slot, grid.getOffsetChunkX(slot) << 4, grid.getOffsetChunkZ(slot) << 4,
+                grid.getCellBounds(slot));
+    }
+
+    public void releaseInstance(ArenaInstance instance) {
+        usedSlots.clear(instance.getSlot());
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public int getUsedCount() {
+        return usedSlots.cardinality();
+    }
+
+    public int getCapacity() {
+        return grid.getCapacity();
+    }
+}
@@ -0,0 +1,129 @@
+package com.guythatlives.bedwarsg.world;
+
+import com.guythatlives.bedwarsg.BedwarsG;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+public class TemplateCache {
+
+    private static final Set<String> SKIPPED_FILES = new HashSet<>(Arrays.asList(
+            "session.lock", "uid.dat", TemplateManifest.FILE_NAME));
+
+    private final BedwarsG plugin;
+    private final WorldCloner worldCloner;
+    private final long maxBytes;
+    private final LinkedHashMap<String, TemplateImage> images;
+    private final Map<String, Integer> versions;
+    private final Set<String> loading;
+    private long usedBytes;
+
+    public TemplateCache(BedwarsG plugin, WorldCloner worldCloner) {
+        this.plugin = plugin;
+        this.worldCloner = worldCloner;
+        this.maxBytes = plugin.getConfigManager().getInt("template-cache.max-memory-mb") * 1024L * 1024L;
+        // Access ordered so the eldest entry is always the least recently used template
+        this.images = new LinkedHashMap<>(16, 0.75f, true);
+        this.versions = new HashMap<>();
+        this.loading = new HashSet<>();
+    }
+
+    public synchronized TemplateImage get(String mapName) {
+        return images.get(mapName);
+    }
+
+    public void load(String mapName, File templateFolder) {
+        int version;
+        synchronized (this) {
+            if (maxBytes <= 0 || images.containsKey(mapName) || !loading.add(mapName)) {
+                return;
+            }
+            version = versions.getOrDefault(mapName, 0);
+        }
+
+        worldCloner.run(() -> {
+            try {
+                put(mapName, read(templateFolder.toPath()), version);
+            } catch (UncheckedIOException e) {
+                plugin.getLogger().warning("Could not cache map template " + mapName + ": " + e.getMessage());
+            } finally {
+                synchronized (this) {
+                    loading.remove(mapName);
+                }
+            }
+        });
+    }
+
+    private TemplateImage read(Path folder) {
+        TemplateImage image = new TemplateImage();
+
+        try {
+            Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (!SKIPPED_FILES.contains(file.getFileName().toString())) {
+                        image.addFile(folder.relativize(file).toString(), file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return image;
+    }
+
+    private synchronized void put(String mapName, TemplateImage image, int version) {
+        // The template was rewritten while we were reading it
+        if (versions.getOrDefault(mapName, 0) != version) {
+            return;
+        }
+
+        if (image.getCompressedSize() > maxBytes) {
+            plugin.getLogger().warning("Map template " + mapName + " is larger than the template cache, not caching it");
+            return;
+        }
+
+        images.put(mapName, image);
+        usedBytes += image.getCompressedSize();
+
+        // Evict least recently used templates until we are back under the cap
+        Iterator<Map.Entry<String, TemplateImage>> iterator = images.entrySet().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, TemplateImage> eldest = iterator.next();
+            if (eldest.getKey().equals(mapName)) {
+                continue;
+            }
+            usedBytes -= eldest.getValue().getCompressedSize();
+            iterator.remove();
+        }
+
+        plugin.getLogger().info("Cached map template " + mapName + " (" + (image.getOriginalSize() / 1024) + " KB -> " +
+                (image.getCompressedSize() / 1024) + " KB)");
+    }
+
+    public synchronized void invalidate(String mapName) {
+        versions.merge(mapName, 1, Integer::sum);
+        TemplateImage removed = images.remove(mapName);
+        if (removed != null) {
+            usedBytes -= removed.getCompressedSize();
+        }
+    }
+
+    public synchronized int getCachedCount() {
+        return images.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
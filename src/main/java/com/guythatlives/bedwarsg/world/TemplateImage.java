@@ -0,0 +1,59 @@
+package com.guythatlives.bedwarsg.world;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+public class TemplateImage {
+
+    private final List<String> paths;
+    private final List<byte[]> contents;
+    private long compressedSize;
+    private long originalSize;
+
+    public TemplateImage() {
+        this.paths = new ArrayList<>();
+        this.contents = new ArrayList<>();
+    }
+
+    public void addFile(String relativePath, Path file) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (OutputStream out = new DeflaterOutputStream(buffer, deflater)) {
+            originalSize += Files.copy(file, out);
+        } finally {
+            deflater.end();
+        }
+
+        byte[] compressed = buffer.toByteArray();
+        paths.add(relativePath);
+        contents.add(compressed);
+        compressedSize += compressed.length;
+    }
+
+    public int getFileCount() {
+        return paths.size();
+    }
+
+    public String getPath(int index) {
+        return paths.get(index);
+    }
+
+    public byte[] getCompressed(int index) {
+        return contents.get(index);
+    }
+
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    public long getOriginalSize() {
+        return originalSize;
+    }
+}
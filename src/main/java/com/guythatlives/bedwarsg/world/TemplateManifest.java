@@ -0,0 +1,145 @@
+package com.guythatlives.bedwarsg.world;
+
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TemplateManifest {
+
+    public static final String FILE_NAME = "bedwarsg-manifest.yml";
+
+    private final Map<String, Entry> entries;
+    private String pruneBounds;
+    private int pruneMargin;
+
+    public TemplateManifest() {
+        // Filled from several I/O workers at once while a template is saved
+        this.entries = new ConcurrentHashMap<>();
+    }
+
+    public static TemplateManifest load(Path folder) {
+        File file = folder.resolve(FILE_NAME).toFile();
+        if (!file.exists()) {
+            return null;
+        }
+
+        TemplateManifest manifest = new TemplateManifest();
+        FileConfiguration config = YamlConfiguration.loadConfiguration(file);
+        manifest.pruneBounds = config.getString("prune-bounds");
+        manifest.pruneMargin = config.getInt("prune-margin");
+        for (Map<?, ?> values : config.getMapList("files")) {
+            Entry entry = new Entry(
+                    String.valueOf(values.get("path")),
+                    ((Number) values.get("size")).longValue(),
+                    String.valueOf(values.get("sha256")),
+                    ((Number) values.get("source-size")).longValue(),
+                    ((Number) values.get("source-modified")).longValue());
+            manifest.entries.put(entry.path, entry);
+        }
+        return manifest;
+    }
+
+    public void save(Path folder) throws IOException {
+        List<Map<String, Object>> files = new ArrayList<>();
+        for (Entry entry : new TreeMap<>(entries).values()) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("path", entry.path);
+            values.put("size", entry.size);
+            values.put("sha256", entry.sha256);
+            values.put("source-size", entry.sourceSize);
+            values.put("source-modified", entry.sourceModified);
+            files.add(values);
+        }
+
+        FileConfiguration config = new YamlConfiguration();
+        config.set("prune-bounds", pruneBounds);
+        config.set("prune-margin", pruneMargin);
+        config.set("files", files);
+        config.save(folder.resolve(FILE_NAME).toFile());
+    }
+
+    public String findDamagedFile(Path folder) {
+        // Sizes are cheap to check on every clone, hashes are only compared when saving
+        for (Entry entry : entries.values()) {
+            File file = folder.resolve(entry.path).toFile();
+            if (!file.isFile() || file.length() != entry.size) {
+                return entry.path;
+            }
+        }
+        return null;
+    }
+
+    public void setPruning(String bounds, int margin) {
+        this.pruneBounds = bounds;
+        this.pruneMargin = margin;
+    }
+
+    public boolean hasSamePruning(TemplateManifest other) {
+        return other != null && pruneMargin == other.pruneMargin && Objects.equals(pruneBounds, other.pruneBounds);
+    }
+
+    public Entry get(String path) {
+        return entries.get(path);
+    }
+
+    public void put(Entry entry) {
+        entries.put(entry.path, entry);
+    }
+
+    public int getFileCount() {
+        return entries.size();
+    }
+
+    public static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class Entry {
+
+        private final String path;
+        private final long size;
+        private final String sha256;
+        private final long sourceSize;
+        private final long sourceModified;
+
+        public Entry(String path, long size, String sha256, long sourceSize, long sourceModified) {
+            this.path = path;
+            this.size = size;
+            this.sha256 = sha256;
+            this.sourceSize = sourceSize;
+            this.sourceModified = sourceModified;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public boolean hasSameSource(long sourceSize, long sourceModified) {
+            return this.sourceSize == sourceSize && this.sourceModified == sourceModified;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.guythatlives.bedwarsg.world;
+
+import org.bukkit.World;
+import org.bukkit.generator.ChunkGenerator;
+
+import java.util.Random;
+
+public class VoidChunkGenerator extends ChunkGenerator {
+
+    private final boolean structures;
+    private final boolean decorations;
+
+    public VoidChunkGenerator(boolean structures, boolean decorations) {
+        this.structures = structures;
+        this.decorations = decorations;
+    }
+
+    @Override
+    public ChunkData generateChunkData(World world, Random random, int chunkX, int chunkZ, BiomeGrid biome) {
+        // Anything outside the saved map is empty, game worlds are thrown away anyway
+        return createChunkData(world);
+    }
+
+    @Override
+    public boolean isParallelCapable() {
+        return true;
+    }
+
+    @Override
+    public boolean shouldGenerateStructures() {
+        return structures;
+    }
+
+    @Override
+    public boolean shouldGenerateDecorations() {
+        return decorations;
+    }
+
+    @Override
+    public boolean shouldGenerateCaves() {
+        return false;
+    }
+
+    @Override
+    public boolean shouldGenerateMobs() {
+        return false;
+    }
+}
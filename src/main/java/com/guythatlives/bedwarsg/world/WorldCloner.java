@@ -0,0 +1,324 @@
+package com.guythatlives.bedwarsg.world;
+
+import com.guythatlives.bedwarsg.BedwarsG;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.InflaterInputStream;
+
+public class WorldCloner {
+
+    private static final Set<String> SKIPPED_FILES = new HashSet<>(Arrays.asList(
+            "session.lock", "uid.dat", TemplateManifest.FILE_NAME));
+    private static final Set<String> WRITTEN_FOLDERS = new HashSet<>(Arrays.asList(
+            "region", "poi", "entities", "data", "playerdata", "stats", "advancements"));
+    private static final String PROBE_FILE = ".bedwarsg-clone-probe";
+
+    private final BedwarsG plugin;
+    private final ExecutorService executor;
+    private CloneStrategy strategy;
+
+    public WorldCloner(BedwarsG plugin) {
+        this.plugin = plugin;
+        this.strategy = CloneStrategy.COPY;
+        int threads = Math.max(1, plugin.getConfigManager().getInt("world-cloning.threads"));
+        AtomicInteger threadCount = new AtomicInteger();
+
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "BedwarsG-WorldIO-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CloneStrategy detectStrategy(Path templates, Path worlds) {
+        String configured = plugin.getConfigManager().getString("world-cloning.strategy");
+        if (configured != null && !configured.equalsIgnoreCase("auto")) {
+            try {
+                strategy = CloneStrategy.valueOf(configured.toUpperCase());
+                return strategy;
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Unknown world-cloning.strategy '" + configured + "', detecting automatically");
+            }
+        }
+
+        // Templates and game worlds usually live on the same filesystem, try the cheapest clone that works there
+        Path probe = templates.resolve(PROBE_FILE);
+        Path probeTarget = worlds.resolve(PROBE_FILE);
+        try {
+            Files.write(probe, new byte[]{1});
+            Files.deleteIfExists(probeTarget);
+            if (probeReflink(probe, probeTarget)) {
+                strategy = CloneStrategy.REFLINK;
+            } else {
+                Files.deleteIfExists(probeTarget);
+                Files.createLink(probeTarget, probe);
+                strategy = CloneStrategy.HARDLINK;
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            strategy = CloneStrategy.COPY;
+        } finally {
+            try {
+                Files.deleteIfExists(probeTarget);
+                Files.deleteIfExists(probe);
+            } catch (IOException ignored) {
+            }
+        }
+        return strategy;
+    }
+
+    public CompletableFuture<Void> copy(Path source, Path target) {
+        return copy(source, target, null);
+    }
+
+    public CompletableFuture<Void> copy(Path source, Path target, RegionPruner pruner) {
+        // Walk the template once, then copy every file as its own task on the worker pool
+        return CompletableFuture.supplyAsync(() -> collectFiles(source, target, pruner), executor)
+                .thenCompose(files -> {
+                    CompletableFuture<?>[] copies = new CompletableFuture<?>[files.size()];
+                    for (int i = 0; i < files.size(); i++) {
+                        Path file = files.get(i);
+                        Path relative = source.relativize(file);
+                        Path targetFile = target.resolve(relative);
+                        if (pruner != null && pruner.isPrunable(relative)) {
+                            copies[i] = CompletableFuture.runAsync(() -> pruneFile(pruner, relative, file, targetFile), executor);
+                        } else if (pruner == null) {
+                            // Only game world clones share data with the template, template saves always copy
+                            copies[i] = CompletableFuture.runAsync(() -> cloneFile(relative, file, targetFile), executor);
+                        } else {
+                            copies[i] = CompletableFuture.runAsync(() -> copyFile(file, targetFile), executor);
+                        }
+                    }
+                    return CompletableFuture.allOf(copies);
+                });
+    }
+
+    public CompletableFuture<TemplateManifest> saveTemplate(Path source, Path target, RegionPruner pruner,
+                                                           TemplateManifest previous, Path previousFolder) {
+        TemplateManifest manifest = new TemplateManifest();
+        manifest.setPruning(pruner.getBoundsKey(), pruner.getMargin());
+        // Region files kept from the last save were cut to its bounds, they only fit if those are unchanged
+        boolean samePruning = manifest.hasSamePruning(previous);
+
+        // Like copy, but unchanged files are linked from the previous template instead of written again
+        return CompletableFuture.supplyAsync(() -> collectFiles(source, target, pruner), executor)
+                .thenCompose(files -> {
+                    CompletableFuture<?>[] saves = new CompletableFuture<?>[files.size()];
+                    for (int i = 0; i < files.size(); i++) {
+                        Path file = files.get(i);
+                        Path relative = source.relativize(file);
+                        saves[i] = CompletableFuture.runAsync(() -> saveFile(relative, file, target.resolve(relative),
+                                pruner, samePruning, previous, previousFolder, manifest), executor);
+                    }
+                    return CompletableFuture.allOf(saves);
+                })
+                .thenApply(ignored -> manifest);
+    }
+
+    public CompletableFuture<Void> extract(TemplateImage image, Path target) {
+        // Inflate every cached file straight into the new world folder, no template reads from disk
+        CompletableFuture<?>[] writes = new CompletableFuture<?>[image.getFileCount()];
+        for (int i = 0; i < image.getFileCount(); i++) {
+            Path targetFile = target.resolve(image.getPath(i));
+            byte[] compressed = image.getCompressed(i);
+            writes[i] = CompletableFuture.runAsync(() -> writeFile(compressed, targetFile), executor);
+        }
+        return CompletableFuture.allOf(writes);
+    }
+
+    public CompletableFuture<Void> run(Runnable task) {
+        return CompletableFuture.runAsync(task, executor);
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    private List<Path> collectFiles(Path source, Path target, RegionPruner pruner) {
+        List<Path> files = new ArrayList<>();
+
+        try {
+            Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Path relative = source.relativize(dir);
+                    if (pruner != null && pruner.isExcluded(relative)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+
+                    Files.createDirectories(target.resolve(relative));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    // Skip session.lock and uid.dat
+                    if (SKIPPED_FILES.contains(file.getFileName().toString())) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    if (pruner == null || !pruner.isExcluded(source.relativize(file))) {
+                        files.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return files;
+    }
+
+    private void copyFile(Path source, Path target) {
+        try {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void saveFile(Path relative, Path source, Path target, RegionPruner pruner, boolean samePruning,
+                          TemplateManifest previous, Path previousFolder, TemplateManifest manifest) {
+        String path = relative.toString().replace('\\', '/');
+
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(source, BasicFileAttributes.class);
+            long sourceModified = attrs.lastModifiedTime().toMillis();
+            TemplateManifest.Entry old = previous != null ? previous.get(path) : null;
+            Path oldFile = previousFolder.resolve(relative);
+
+            boolean prunable = pruner.isPrunable(relative);
+
+            // The world never touched this file since the last save, reuse it without reading anything
+            if (old != null && (samePruning || !prunable) && old.hasSameSource(attrs.size(), sourceModified)
+                    && isIntact(oldFile, old)) {
+                linkOrCopy(oldFile, target);
+                manifest.put(old);
+                return;
+            }
+
+            byte[] data = prunable ? pruner.prune(relative, source) : Files.readAllBytes(source);
+            if (data == null) {
+                return;
+            }
+
+            String sha256 = TemplateManifest.sha256(data);
+            if (old != null && old.getSha256().equals(sha256) && isIntact(oldFile, old)) {
+                linkOrCopy(oldFile, target);
+            } else {
+                Files.write(target, data);
+            }
+            manifest.put(new TemplateManifest.Entry(path, data.length, sha256, attrs.size(), sourceModified));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean isIntact(Path file, TemplateManifest.Entry entry) throws IOException {
+        return Files.isRegularFile(file) && Files.size(file) == entry.getSize();
+    }
+
+    private void linkOrCopy(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void cloneFile(Path relative, Path source, Path target) {
+        try {
+            if (strategy == CloneStrategy.REFLINK && reflink(source, target)) {
+                return;
+            }
+
+            if (strategy == CloneStrategy.HARDLINK && !isWrittenByServer(relative)) {
+                Files.deleteIfExists(target);
+                Files.createLink(target, source);
+                return;
+            }
+        } catch (IOException e) {
+            // Fall back to a plain copy below
+        }
+
+        copyFile(source, target);
+    }
+
+    private boolean probeReflink(Path source, Path target) {
+        // No cp to run (Windows, minimal containers) just means no reflinks, hard links may still work
+        try {
+            return reflink(source, target);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private boolean reflink(Path source, Path target) throws IOException {
+        Process process = new ProcessBuilder("cp", "--reflink=always", source.toString(), target.toString())
+                .redirectErrorStream(true)
+                .start();
+        try (InputStream output = process.getInputStream()) {
+            while (output.read() != -1) {
+                // cp only prints on failure, drain it so the process never blocks
+            }
+            return process.waitFor() == 0;
+        } catch (InterruptedException e) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean isWrittenByServer(Path relative) {
+        // A linked file shares its contents with the template, so nothing the server saves may be linked.
+        // Dimensions keep their own region folders (DIM-1/region, DIM1/region), so check every parent folder
+        for (int i = 0; i < relative.getNameCount() - 1; i++) {
+            if (WRITTEN_FOLDERS.contains(relative.getName(i).toString())) {
+                return true;
+            }
+        }
+
+        String name = relative.getFileName().toString();
+        return name.endsWith(".dat") || name.endsWith(".dat_old");
+    }
+
+    private void pruneFile(RegionPruner pruner, Path relative, Path source, Path target) {
+        try {
+            byte[] pruned = pruner.prune(relative, source);
+            // Region files with no chunks left inside the bounds are dropped entirely
+            if (pruned != null) {
+                Files.write(target, pruned);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeFile(byte[] compressed, Path target) {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+            Files.createDirectories(target.getParent());
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public CloneStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
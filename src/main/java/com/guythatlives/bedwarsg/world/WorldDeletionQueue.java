@@ -0,0 +1,145 @@
+package com.guythatlives.bedwarsg.world;
+
+import com.guythatlives.bedwarsg.BedwarsG;
+import org.bukkit.Bukkit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class WorldDeletionQueue {
+
+    private final BedwarsG plugin;
+    private final ExecutorService executor;
+    private final long maxBytesPerSecond;
+    private final AtomicInteger queueDepth;
+    private final AtomicLong bytesReclaimed;
+
+    private long windowStart;
+    private long windowBytes;
+
+    public WorldDeletionQueue(BedwarsG plugin) {
+        this.plugin = plugin;
+        this.maxBytesPerSecond = plugin.getConfigManager().getInt("world-deletion.max-mb-per-second") * 1024L * 1024L;
+        this.queueDepth = new AtomicInteger();
+        this.bytesReclaimed = new AtomicLong();
+        this.windowStart = System.nanoTime();
+
+        int threads = Math.max(1, plugin.getConfigManager().getInt("world-deletion.threads"));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "BedwarsG-WorldDelete-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    public void enqueue(File folder) {
+        queueDepth.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                deleteFolder(folder.toPath());
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to delete world folder " + folder.getName() + ": " + e.getMessage());
+            } finally {
+                queueDepth.decrementAndGet();
+            }
+        });
+    }
+
+    public int recoverLeftovers() {
+        // Game worlds are never loaded at startup, so any bedwars-* folder is left over from a crash or restart
+        File[] leftovers = Bukkit.getWorldContainer().listFiles((dir, name) -> name.startsWith("bedwars-"));
+        if (leftovers == null) {
+            return 0;
+        }
+
+        int count = 0;
+        for (File folder : leftovers) {
+            if (folder.isDirectory() && Bukkit.getWorld(folder.getName()) == null) {
+                enqueue(folder);
+                count++;
+            }
+        }
+
+        if (count > 0) {
+            plugin.getLogger().info("Queued " + count + " leftover game worlds for deletion");
+        }
+        return count;
+    }
+
+    private void deleteFolder(Path folder) throws IOException {
+        if (!Files.exists(folder)) {
+            return;
+        }
+
+        Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                bytesReclaimed.addAndGet(attrs.size());
+                try {
+                    throttle(attrs.size());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return FileVisitResult.TERMINATE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void throttle(long bytes) throws InterruptedException {
+        if (maxBytesPerSecond <= 0) {
+            return;
+        }
+
+        long sleepMillis;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (now - windowStart >= 1_000_000_000L) {
+                windowStart = now;
+                windowBytes = 0;
+            }
+
+            windowBytes += bytes;
+            if (windowBytes < maxBytesPerSecond) {
+                return;
+            }
+
+            // Budget for this second is used up, wait for the next window
+            sleepMillis = (1_000_000_000L - (now - windowStart)) / 1_000_000L;
+            windowStart = now + sleepMillis * 1_000_000L;
+            windowBytes = 0;
+        }
+
+        if (sleepMillis > 0) {
+            Thread.sleep(sleepMillis);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getBytesReclaimed() {
+        return bytesReclaimed.get();
+    }
+
+    public void shutdown() {
+        // Queued folders keep draining until the JVM exits, anything unfinished is recovered on the next start
+        executor.shutdown();
+    }
+}
@@ -1,37 +1,83 @@
 package com.guythatlives.bedwarsg.world;
 
 import com.guythatlives.bedwarsg.BedwarsG;
+import com.guythatlives.bedwarsg.map.ArenaBounds;
+import com.guythatlives.bedwarsg.map.BedwarsMap;
 import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.World;
 import org.bukkit.WorldCreator;
+import org.bukkit.generator.ChunkGenerator;
+import org.bukkit.scheduler.BukkitRunnable;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class WorldManager {
 
+    private static final String STAGING_SUFFIX = ".saving";
+    private static final String OLD_SUFFIX = ".old-";
+    private static final long UNLOAD_RETRY_TICKS = 100L;
+
     private final BedwarsG plugin;
     private final File mapsFolder;
     private final Set<String> activeGameWorlds;
+    private final Set<String> retryingUnloads;
+    private final Set<String> savingTemplates;
+    private final Map<String, CompactArena> compactArenas;
+    private final Map<String, List<SharedWorld>> sharedWorlds;
+    private final WorldCloner worldCloner;
+    private final TemplateCache templateCache;
+    private final WorldDeletionQueue deletionQueue;
+    private final WorldPool worldPool;
+    private final ChunkPreloader chunkPreloader;
 
     public WorldManager(BedwarsG plugin) {
         this.plugin = plugin;
         this.mapsFolder = new File(plugin.getDataFolder(), "map-worlds");
         this.activeGameWorlds = new HashSet<>();
+        this.retryingUnloads = new HashSet<>();
+        this.savingTemplates = new HashSet<>();
+        this.compactArenas = new HashMap<>();
+        this.sharedWorlds = new HashMap<>();
+        this.worldCloner = new WorldCloner(plugin);
+        this.templateCache = new TemplateCache(plugin, worldCloner);
+        this.deletionQueue = new WorldDeletionQueue(plugin);
+        this.worldPool = new WorldPool(plugin, this);
+        this.chunkPreloader = new ChunkPreloader(plugin);
 
         if (!mapsFolder.exists()) {
             mapsFolder.mkdirs();
         }
+
+        CloneStrategy strategy = worldCloner.detectStrategy(mapsFolder.toPath(), Bukkit.getWorldContainer().toPath());
+        plugin.getLogger().info("Cloning game worlds with strategy: " + strategy);
+
+        deletionQueue.recoverLeftovers();
+        recoverTemplateLeftovers();
+
+        worldPool.start();
     }
 
-    public boolean saveMapWorld(String mapName, String worldName) {
+    public void saveMapWorld(String mapName, String worldName, Consumer<Boolean> callback) {
         World world = Bukkit.getWorld(worldName);
         if (world == null) {
             plugin.getLogger().warning("World " + worldName + " not found!");
-            return false;
+            callback.accept(false);
+            return;
+        }
+
+        if (!savingTemplates.add(mapName)) {
+            plugin.getLogger().warning("Map world " + mapName + " is already being saved!");
+            callback.accept(false);
+            return;
         }
 
         // Save the world first
@@ -40,66 +86,383 @@ public class WorldManager {
         File sourceWorld = world.getWorldFolder();
         File targetWorld = new File(mapsFolder, mapName);
 
-        // Delete existing backup if it exists
-        if (targetWorld.exists()) {
-            deleteDirectory(targetWorld);
+        // Cached and pooled copies of the old template are stale now
+        templateCache.invalidate(mapName);
+        worldPool.drain(mapName);
+
+        if (isCompactFormat()) {
+            saveCompactMap(mapName, world, callback);
+            return;
         }
 
+        RegionPruner pruner = createPruner(mapName);
+
+        File stagingWorld = new File(mapsFolder, mapName + STAGING_SUFFIX);
+
+        // Build the new template next to the old one, reusing every file that did not change
+        worldCloner.supply(() -> {
+                    deleteDirectory(stagingWorld);
+                    return TemplateManifest.load(targetWorld.toPath());
+                })
+                .thenCompose(previous -> worldCloner.saveTemplate(sourceWorld.toPath(), stagingWorld.toPath(), pruner,
+                        previous, targetWorld.toPath()))
+                .thenCompose(manifest -> worldCloner.run(() -> replaceTemplate(manifest, stagingWorld, targetWorld)))
+                .whenComplete((ignored, error) -> runSync(() -> {
+                    savingTemplates.remove(mapName);
+
+                    if (error != null) {
+                        plugin.getLogger().severe("Failed to save map world: " + mapName);
+                        error.printStackTrace();
+                        callback.accept(false);
+                        return;
+                    }
+
+                    plugin.getLogger().info("Saved map world: " + mapName + " from " + worldName);
+                    callback.accept(true);
+                }));
+    }
+
+    private void replaceTemplate(TemplateManifest manifest, File stagingWorld, File targetWorld) {
         try {
-            copyDirectory(sourceWorld, targetWorld);
-            plugin.getLogger().info("Saved map world: " + mapName + " from " + worldName);
-            return true;
+            manifest.save(stagingWorld.toPath());
+
+            // Swap the folders by rename so a game never clones a half written template
+            File oldWorld = new File(mapsFolder, targetWorld.getName() + OLD_SUFFIX + System.currentTimeMillis());
+            if (targetWorld.exists()) {
+                Files.move(targetWorld.toPath(), oldWorld.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+            Files.move(stagingWorld.toPath(), targetWorld.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+            if (oldWorld.exists()) {
+                deletionQueue.enqueue(oldWorld);
+            }
         } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save map world: " + mapName);
-            e.printStackTrace();
-            return false;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void recoverTemplateLeftovers() {
+        // Staging and replaced templates left behind by a crash during savemapworld
+        File[] leftovers = mapsFolder.listFiles((dir, name) -> name.endsWith(STAGING_SUFFIX) || name.contains(OLD_SUFFIX));
+        if (leftovers != null) {
+            for (File folder : leftovers) {
+                deletionQueue.enqueue(folder);
+            }
+        }
+    }
+
+    private void saveCompactMap(String mapName, World world, Consumer<Boolean> callback) {
+        BedwarsMap map = plugin.getMapManager().getMap(mapName);
+        ArenaBounds bounds = map != null ? map.getExportBounds(plugin.getConfigManager().getInt("map-export.margin")) : null;
+        if (bounds == null) {
+            plugin.getLogger().warning("Compact maps need bounds, set spawns/beds or /bwadmin setbounds for " + mapName);
+            savingTemplates.remove(mapName);
+            callback.accept(false);
+            return;
+        }
+
+        compactArenas.remove(mapName);
+
+        List<long[]> chunkCoords = new ArrayList<>();
+        for (int x = bounds.getMinX() >> 4; x <= bounds.getMaxX() >> 4; x++) {
+            for (int z = bounds.getMinZ() >> 4; z <= bounds.getMaxZ() >> 4; z++) {
+                if (world.isChunkGenerated(x, z)) {
+                    chunkCoords.add(new long[]{x, z});
+                }
+            }
+        }
+
+        int chunksPerTick = Math.max(1, plugin.getConfigManager().getInt("map-format.chunks-per-tick"));
+        int sectionCount = world.getMaxHeight() >> 4;
+        List<ChunkSnapshot> snapshots = new ArrayList<>();
+        Path compactFile = getCompactFile(mapName).toPath();
+
+        // Snapshots must be taken on the main thread, a few chunks per tick
+        new BukkitRunnable() {
+            int index = 0;
+
+            @Override
+            public void run() {
+                for (int i = 0; i < chunksPerTick && index < chunkCoords.size(); i++, index++) {
+                    long[] coords = chunkCoords.get(index);
+                    snapshots.add(world.getChunkAt((int) coords[0], (int) coords[1]).getChunkSnapshot(false, false, false));
+                }
+
+                if (index < chunkCoords.size()) {
+                    return;
+                }
+                cancel();
+
+                // Palette encoding and compression run on the I/O workers
+                worldCloner.supply(() -> {
+                    CompactArena arena = CompactArena.capture(snapshots, sectionCount);
+                    try {
+                        arena.write(compactFile);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return arena;
+                }).whenComplete((arena, error) -> runSync(() -> {
+                    savingTemplates.remove(mapName);
+
+                    if (error != null) {
+                        plugin.getLogger().severe("Failed to save compact map: " + mapName);
+                        error.printStackTrace();
+                        callback.accept(false);
+                        return;
+                    }
+
+                    plugin.getLogger().info("Saved compact map: " + mapName + " (" + arena.getChunkCount() + " chunks, " +
+                            arena.getSectionCount() + " sections)");
+                    callback.accept(true);
+                }));
+            }
+        }.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    private RegionPruner createPruner(String mapName) {
+        List<String> excludedFolders = plugin.getConfigManager().getConfig().getStringList("map-export.excluded-folders");
+        BedwarsMap map = plugin.getMapManager().getMap(mapName);
+        int margin = plugin.getConfigManager().getInt("map-export.margin");
+        ArenaBounds bounds = map != null ? map.getExportBounds(margin) : null;
+
+        if (bounds == null) {
+            plugin.getLogger().warning("No bounds known for map " + mapName + ", exporting every region file");
+        } else {
+            plugin.getLogger().info("Exporting map " + mapName + " within bounds " + bounds);
         }
+        return new RegionPruner(bounds, margin, excludedFolders);
     }
 
-    public String createGameWorld(String mapName) {
+    public void acquireGameWorld(String mapName, Consumer<String> callback) {
+        // Prefer a pre-loaded world from the pool, fall back to copying the template now
+        String worldName = worldPool.acquire(mapName);
+        if (worldName != null) {
+            plugin.getLogger().info("Using pooled game world: " + worldName + " for map " + mapName);
+            callback.accept(worldName);
+            return;
+        }
+        createGameWorld(mapName, callback);
+    }
+
+    public void createGameWorld(String mapName, Consumer<String> callback) {
+        if (isTemplateBusy(mapName)) {
+            plugin.getLogger().warning("Map world " + mapName + " is being saved, cannot create a game world yet");
+            callback.accept(null);
+            return;
+        }
+
+        // Generate unique world name
+        String worldName = "bedwars-" + UUID.randomUUID().toString().substring(0, 8);
+
+        if (isCompactFormat() && getCompactFile(mapName).exists()) {
+            createCompactWorld(mapName, worldName, callback);
+            return;
+        }
+
         File sourceWorld = new File(mapsFolder, mapName);
         if (!sourceWorld.exists()) {
             plugin.getLogger().warning("Map world not found: " + mapName);
-            return null;
+            callback.accept(null);
+            return;
         }
 
-        // Generate unique world name
-        String worldName = "bedwars-" + UUID.randomUUID().toString().substring(0, 8);
         File targetWorld = new File(Bukkit.getWorldContainer(), worldName);
 
-        try {
-            // Copy world files
-            copyDirectory(sourceWorld, targetWorld);
+        // Write world files on the I/O workers, only loading the world runs on the main thread
+        CompletableFuture<Void> clone;
+        if (worldCloner.getStrategy() == CloneStrategy.REFLINK) {
+            // Reflinks read no file data at all, keeping the template in memory would only cost heap
+            clone = cloneTemplate(mapName, sourceWorld, targetWorld);
+        } else {
+            // The cache wins over hardlinks, those only cover the small files while the cache also skips reading regions
+            TemplateImage image = templateCache.get(mapName);
+            if (image != null) {
+                clone = worldCloner.extract(image, targetWorld.toPath());
+            } else {
+                clone = cloneTemplate(mapName, sourceWorld, targetWorld);
+                templateCache.load(mapName, sourceWorld);
+            }
+        }
+
+        clone.whenComplete((ignored, error) -> runSync(() -> {
+                    if (error != null) {
+                        plugin.getLogger().severe("Failed to create game world from map: " + mapName);
+                        error.printStackTrace();
+                        deletionQueue.enqueue(targetWorld);
+                        callback.accept(null);
+                        return;
+                    }
+
+                    callback.accept(loadGameWorld(worldName, mapName, null));
+                }));
+    }
 
-            // Remove uid.dat to prevent conflicts
-            File uidFile = new File(targetWorld, "uid.dat");
-            if (uidFile.exists()) {
-                uidFile.delete();
+    private CompletableFuture<Void> cloneTemplate(String mapName, File sourceWorld, File targetWorld) {
+        // Check the template against its manifest first, a damaged template fails here instead of in the world loader
+        return worldCloner.run(() -> {
+            TemplateManifest manifest = TemplateManifest.load(sourceWorld.toPath());
+            String damaged = manifest != null ? manifest.findDamagedFile(sourceWorld.toPath()) : null;
+            if (damaged != null) {
+                throw new IllegalStateException("Map template " + mapName + " is damaged, " + damaged +
+                        " is missing or has the wrong size. Run /bwadmin savemapworld again");
             }
+        }).thenCompose(ignored -> worldCloner.copy(sourceWorld.toPath(), targetWorld.toPath()));
+    }
 
-            // Load the world
-            WorldCreator creator = new WorldCreator(worldName);
-            World world = Bukkit.createWorld(creator);
+    private void createCompactWorld(String mapName, String worldName, Consumer<String> callback) {
+        loadCompactArena(mapName, arena -> callback.accept(arena == null ? null :
+                loadGameWorld(worldName, mapName, new ArenaChunkGenerator(arena, generateStructures(), generateDecorations()))));
+    }
 
-            if (world == null) {
-                plugin.getLogger().severe("Failed to create world: " + worldName);
-                deleteDirectory(targetWorld);
-                return null;
+    public void acquireInstance(String mapName, Consumer<ArenaInstance> callback) {
+        if (!getCompactFile(mapName).exists() || isTemplateBusy(mapName)) {
+            callback.accept(null);
+            return;
+        }
+
+        ArenaInstance instance = claimSharedInstance(mapName);
+        if (instance != null) {
+            callback.accept(instance);
+            return;
+        }
+
+        loadCompactArena(mapName, arena -> {
+            if (arena == null) {
+                callback.accept(null);
+                return;
+            }
+
+            // Another arena may have opened a shared world while the map was being read
+            ArenaInstance claimed = claimSharedInstance(mapName);
+            if (claimed != null) {
+                callback.accept(claimed);
+                return;
             }
 
-            // Configure world settings
-            world.setAutoSave(false);
-            world.setKeepSpawnInMemory(false);
+            // Cells are at least one chunk wider than the arena so neighbouring instances never touch
+            int spacing = Math.max(plugin.getConfigManager().getInt("multi-instance.spacing-chunks"), arena.getChunkSpan() + 1);
+            int capacity = Math.max(1, plugin.getConfigManager().getInt("multi-instance.instances-per-world"));
+            InstanceGrid grid = new InstanceGrid(arena.getMinChunkX(), arena.getMinChunkZ(), spacing, capacity);
 
-            activeGameWorlds.add(worldName);
-            plugin.getLogger().info("Created game world: " + worldName + " from map " + mapName);
-            return worldName;
+            String worldName = "bedwars-shared-" + UUID.randomUUID().toString().substring(0, 8);
+            if (loadGameWorld(worldName, mapName, new ArenaChunkGenerator(arena, grid, generateStructures(), generateDecorations())) == null) {
+                callback.accept(null);
+                return;
+            }
 
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to create game world from map: " + mapName);
-            e.printStackTrace();
+            SharedWorld shared = new SharedWorld(worldName, grid);
+            sharedWorlds.computeIfAbsent(mapName, key -> new ArrayList<>()).add(shared);
+            callback.accept(shared.claimInstance());
+        });
+    }
+
+    private ArenaInstance claimSharedInstance(String mapName) {
+        for (SharedWorld shared : sharedWorlds.getOrDefault(mapName, Collections.emptyList())) {
+            ArenaInstance instance = shared.claimInstance();
+            if (instance != null) {
+                return instance;
+            }
+        }
+        return null;
+    }
+
+    public void releaseInstance(ArenaInstance instance) {
+        for (List<SharedWorld> worlds : sharedWorlds.values()) {
+            for (SharedWorld shared : worlds) {
+                if (shared.getWorldName().equals(instance.getWorldName())) {
+                    shared.releaseInstance(instance);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void loadCompactArena(String mapName, Consumer<CompactArena> callback) {
+        CompactArena cached = compactArenas.get(mapName);
+        if (cached != null) {
+            callback.accept(cached);
+            return;
+        }
+
+        // Read the arena file once, after that every game world is generated straight from memory
+        File compactFile = getCompactFile(mapName);
+        worldCloner.supply(() -> {
+            try {
+                return CompactArena.read(compactFile.toPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((arena, error) -> runSync(() -> {
+            if (error != null) {
+                plugin.getLogger().severe("Failed to read compact map: " + mapName);
+                error.printStackTrace();
+                callback.accept(null);
+                return;
+            }
+
+            arena.resolveBlockData();
+            if (!isTemplateBusy(mapName)) {
+                compactArenas.put(mapName, arena);
+            }
+            callback.accept(arena);
+        }));
+    }
+
+    private String loadGameWorld(String worldName, String mapName, ChunkGenerator generator) {
+        // Chunks missing from the template are generated empty instead of as real terrain
+        WorldCreator creator = new WorldCreator(worldName);
+        creator.generator(generator != null ? generator : new VoidChunkGenerator(generateStructures(), generateDecorations()));
+        creator.generateStructures(generateStructures());
+        World world = Bukkit.createWorld(creator);
+
+        if (world == null) {
+            plugin.getLogger().severe("Failed to create world: " + worldName);
+            deletionQueue.enqueue(new File(Bukkit.getWorldContainer(), worldName));
             return null;
         }
+
+        // Configure world settings
+        world.setAutoSave(false);
+        world.setKeepSpawnInMemory(false);
+
+        activeGameWorlds.add(worldName);
+        plugin.getLogger().info("Created game world: " + worldName + " from map " + mapName);
+        return worldName;
+    }
+
+    private void runSync(Runnable task) {
+        // Completion callbacks always hop back to the server thread
+        if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    private boolean generateStructures() {
+        return plugin.getConfigManager().getBoolean("game-world.generate-structures");
+    }
+
+    private boolean generateDecorations() {
+        return plugin.getConfigManager().getBoolean("game-world.generate-decorations");
+    }
+
+    public boolean isCompactFormat() {
+        return "compact".equalsIgnoreCase(plugin.getConfigManager().getString("map-format.type"));
+    }
+
+    public File getCompactFile(String mapName) {
+        return new File(mapsFolder, mapName + ".bwarena");
+    }
+
+    public boolean hasTemplate(String mapName) {
+        if (isCompactFormat() && getCompactFile(mapName).exists()) {
+            return true;
+        }
+        return new File(mapsFolder, mapName).exists();
+    }
+
+    public boolean isTemplateBusy(String mapName) {
+        return savingTemplates.contains(mapName);
     }
 
     public void deleteGameWorld(String worldName) {
@@ -118,50 +481,42 @@ public class WorldManager {
                 }
             }
 
-            // Unload the world
-            Bukkit.unloadWorld(world, false);
+            // Players still inside (teleports not through yet, no lobby to send them to) keep the world loaded,
+            // deleting its folder now would pull the region files out from under them
+            if (!Bukkit.unloadWorld(world, false)) {
+                if (retryingUnloads.add(worldName)) {
+                    plugin.getLogger().warning("Could not unload game world " + worldName + ", retrying later");
+                    plugin.getTimerService().schedule(UNLOAD_RETRY_TICKS, () -> {
+                        retryingUnloads.remove(worldName);
+                        deleteGameWorld(worldName);
+                    });
+                }
+                return;
+            }
         }
 
-        // Delete world folder
-        File worldFolder = new File(Bukkit.getWorldContainer(), worldName);
-        if (worldFolder.exists()) {
-            deleteDirectory(worldFolder);
-            plugin.getLogger().info("Deleted game world: " + worldName);
-        }
+        // Folder removal happens on the background deletion queue
+        deletionQueue.enqueue(new File(Bukkit.getWorldContainer(), worldName));
+        plugin.getLogger().info("Queued game world for deletion: " + worldName);
 
         activeGameWorlds.remove(worldName);
+        for (List<SharedWorld> worlds : sharedWorlds.values()) {
+            worlds.removeIf(shared -> shared.getWorldName().equals(worldName));
+        }
     }
 
     public void deleteAllGameWorlds() {
         plugin.getLogger().info("Cleaning up all game worlds...");
+        worldPool.clear();
         List<String> worldsToDelete = new ArrayList<>(activeGameWorlds);
         for (String worldName : worldsToDelete) {
             deleteGameWorld(worldName);
         }
     }
 
-    private void copyDirectory(File source, File target) throws IOException {
-        if (!target.exists()) {
-            target.mkdirs();
-        }
-
-        File[] files = source.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                File targetFile = new File(target, file.getName());
-
-                // Skip session.lock and uid.dat
-                if (file.getName().equals("session.lock") || file.getName().equals("uid.dat")) {
-                    continue;
-                }
-
-                if (file.isDirectory()) {
-                    copyDirectory(file, targetFile);
-                } else {
-                    Files.copy(file.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                }
-            }
-        }
+    public void shutdown() {
+        worldCloner.shutdown();
+        deletionQueue.shutdown();
     }
 
     private void deleteDirectory(File directory) {
@@ -200,6 +555,30 @@ public class WorldManager {
         return new HashSet<>(activeGameWorlds);
     }
 
+    public Map<String, List<SharedWorld>> getSharedWorlds() {
+        return sharedWorlds;
+    }
+
+    public ChunkPreloader getChunkPreloader() {
+        return chunkPreloader;
+    }
+
+    public WorldCloner getWorldCloner() {
+        return worldCloner;
+    }
+
+    public TemplateCache getTemplateCache() {
+        return templateCache;
+    }
+
+    public WorldDeletionQueue getDeletionQueue() {
+        return deletionQueue;
+    }
+
+    public WorldPool getWorldPool() {
+        return worldPool;
+    }
+
     public File getMapsFolder() {
         return mapsFolder;
     }
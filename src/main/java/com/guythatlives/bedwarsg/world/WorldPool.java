@@ -0,0 +1,128 @@
+package com.guythatlives.bedwarsg.world;
+
+import com.guythatlives.bedwarsg.BedwarsG;
+import com.guythatlives.bedwarsg.map.BedwarsMap;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.*;
+
+public class WorldPool {
+
+    private final BedwarsG plugin;
+    private final WorldManager worldManager;
+    private final Map<String, Deque<String>> pools;
+    private final Map<String, Integer> pending;
+    private final Map<String, Integer> hits;
+    private final Map<String, Integer> misses;
+
+    public WorldPool(BedwarsG plugin, WorldManager worldManager) {
+        this.plugin = plugin;
+        this.worldManager = worldManager;
+        this.pools = new HashMap<>();
+        this.pending = new HashMap<>();
+        this.hits = new HashMap<>();
+        this.misses = new HashMap<>();
+    }
+
+    public void start() {
+        long interval = Math.max(1L, plugin.getConfigManager().getInt("world-pool.refill-interval"));
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                refill();
+            }
+        }.runTaskTimer(plugin, interval, interval);
+    }
+
+    public String acquire(String mapName) {
+        Deque<String> pool = pools.get(mapName);
+        while (pool != null && !pool.isEmpty()) {
+            String worldName = pool.poll();
+            // Skip worlds that were unloaded behind our back
+            if (Bukkit.getWorld(worldName) != null) {
+                hits.merge(mapName, 1, Integer::sum);
+                return worldName;
+            }
+        }
+
+        misses.merge(mapName, 1, Integer::sum);
+        return null;
+    }
+
+    private void refill() {
+        if (plugin.getMapManager() == null) {
+            return;
+        }
+
+        // Start at most one world per run so world loads never stack up in a single tick
+        for (BedwarsMap map : plugin.getMapManager().getMaps().values()) {
+            Deque<String> pool = pools.computeIfAbsent(map.getName(), k -> new ArrayDeque<>());
+            int target = getTargetSize(map);
+
+            if (pool.size() > target) {
+                worldManager.deleteGameWorld(pool.pollLast());
+                return;
+            }
+
+            int creating = pending.getOrDefault(map.getName(), 0);
+            if (pool.size() + creating < target && worldManager.hasTemplate(map.getName()) && !worldManager.isTemplateBusy(map.getName())) {
+                pending.put(map.getName(), creating + 1);
+                worldManager.createGameWorld(map.getName(), worldName -> {
+                    pending.merge(map.getName(), -1, Integer::sum);
+                    if (worldName == null) {
+                        return;
+                    }
+
+                    // The pool was drained while copying, so this world came from an old template
+                    if (pools.get(map.getName()) != pool) {
+                        worldManager.deleteGameWorld(worldName);
+                        return;
+                    }
+                    pool.add(worldName);
+                });
+                return;
+            }
+        }
+    }
+
+    public void drain(String mapName) {
+        Deque<String> pool = pools.remove(mapName);
+        if (pool == null) {
+            return;
+        }
+
+        for (String worldName : pool) {
+            worldManager.deleteGameWorld(worldName);
+        }
+    }
+
+    public void clear() {
+        pools.clear();
+    }
+
+    public int getTargetSize(BedwarsMap map) {
+        if (!plugin.getConfigManager().getBoolean("world-pool.enabled") || !map.isEnabled()) {
+            return 0;
+        }
+
+        if (map.getPoolSize() >= 0) {
+            return map.getPoolSize();
+        }
+        return plugin.getConfigManager().getInt("world-pool.default-size");
+    }
+
+    public int getReadyCount(String mapName) {
+        Deque<String> pool = pools.get(mapName);
+        return pool == null ? 0 : pool.size();
+    }
+
+    public int getHits(String mapName) {
+        return hits.getOrDefault(mapName, 0);
+    }
+
+    public int getMisses(String mapName) {
+        return misses.getOrDefault(mapName, 0);
+    }
+}
@@ -0,0 +1,310 @@
+package com.guythatlives.bedwarsg.simulation;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import com.guythatlives.bedwarsg.BedwarsG;
+import com.guythatlives.bedwarsg.arena.Arena;
+import com.guythatlives.bedwarsg.arena.ArenaState;
+import com.guythatlives.bedwarsg.arena.BedwarsTeam;
+import com.guythatlives.bedwarsg.arena.GameMode;
+import com.guythatlives.bedwarsg.map.BedwarsMap;
+import com.guythatlives.bedwarsg.stats.PlayerStats;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plays full solo games in many arenas at once on a mock server: players join, fight, lose their beds,
+ * quit and are sent back to the lobby, then the arenas are rolled back and played again.
+ * <p>
+ * Every simulated tick, scripted actions included, is timed and its main thread allocations counted. Only runs with
+ * -Psimulation. Scale it up with -Dbedwarsg.simulation.arenas and -Dbedwarsg.simulation.rounds, the average tick is
+ * only checked against -Dbedwarsg.simulation.max-tick-millis when that is set.
+ */
+@Tag("simulation")
+class ArenaSimulationTest {
+
+    private static final int ARENAS = Integer.getInteger("bedwarsg.simulation.arenas", 32);
+    private static final int ROUNDS = Integer.getInteger("bedwarsg.simulation.rounds", 2);
+    private static final String MAX_AVERAGE_TICK_MILLIS = System.getProperty("bedwarsg.simulation.max-tick-millis");
+
+    private static final int TEAMS = 8;
+    private static final int JOINS_PER_TICK = 20;
+    private static final int MAX_ROUND_TICKS = 20 * 120;
+
+    // Seconds into each game
+    private static final int FIGHT_SECOND = 2;
+    private static final int QUIT_SECOND = 3;
+    private static final int GRIEF_SECOND = 4;
+    private static final int BED_DESTRUCTION_SECOND = 5;
+
+    @TempDir
+    Path worldContainer;
+
+    private SimServer server;
+    private BedwarsG plugin;
+    private List<SimWorld> arenaWorlds;
+    private List<SimPlayer> players;
+    private TickStats stats;
+    private Map<Location, Material> emptiedBuckets;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock(new SimServer(worldContainer.toFile()));
+        server.addWorld(new SimWorld("world"));
+        plugin = MockBukkit.load(BedwarsG.class);
+        configure(plugin.getConfig());
+
+        BedwarsMap map = createMap(server.getWorld("world"));
+        arenaWorlds = new ArrayList<>();
+        for (int i = 0; i < ARENAS; i++) {
+            // Journal resets keep each arena in its own world, so no world is copied between rounds
+            SimWorld world = new SimWorld("simulation-" + i);
+            server.addWorld(world);
+            arenaWorlds.add(world);
+            Arena arena = plugin.getArenaManager().createArena("simulation-" + i, map, GameMode.SOLO);
+            arena.setGameWorldName(world.getName());
+        }
+
+        players = new ArrayList<>();
+        for (int i = 0; i < ARENAS * TEAMS; i++) {
+            SimPlayer player = new SimPlayer(server, "player" + i);
+            server.addPlayer(player);
+            players.add(player);
+        }
+
+        stats = new TickStats();
+        emptiedBuckets = new HashMap<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    private void configure(FileConfiguration config) {
+        config.set("settings.countdown-time", 1);
+        config.set("chunk-preload.enabled", false);
+        config.set("teleport.per-tick", 64);
+        config.set("respawn.time", 1);
+        config.set("admission.enabled", false);
+        config.set("performance.max-arenas", ARENAS);
+
+        // Beds go early so the rest of the game is final kills, the draw only ends a game the script got stuck in
+        config.set("phases", null);
+        config.set("phases.iron-2.time", 3);
+        config.set("phases.iron-2.action", "GENERATOR_UPGRADE");
+        config.set("phases.iron-2.generator", "iron");
+        config.set("phases.iron-2.spawn-rate", 1);
+        config.set("phases.bed-destruction.time", BED_DESTRUCTION_SECOND);
+        config.set("phases.bed-destruction.action", "BED_DESTRUCTION");
+        config.set("phases.game-end.time", 90);
+        config.set("phases.game-end.action", "GAME_END");
+    }
+
+    private BedwarsMap createMap(World template) {
+        BedwarsMap map = plugin.getMapManager().createMap("simulation", template.getName());
+        map.setMinPlayers(TEAMS);
+        map.setMaxPlayers(TEAMS);
+        map.setResetMode("journal");
+
+        // Islands in a ring around a middle with the diamond and emerald generators
+        List<String> colors = plugin.getConfig().getStringList("teams");
+        for (int i = 0; i < TEAMS; i++) {
+            double angle = 2 * Math.PI * i / TEAMS;
+            double x = Math.round(Math.cos(angle) * 80);
+            double z = Math.round(Math.sin(angle) * 80);
+            map.addSpawn(colors.get(i), new Location(template, x, 65, z));
+            map.addBed(colors.get(i), new Location(template, x * 0.9, 65, z * 0.9));
+            map.addGenerator("iron", new Location(template, x * 1.05, 65, z * 1.05));
+            map.addGenerator("gold", new Location(template, x * 1.05, 65, z * 1.05 + 2));
+            map.addGenerator("diamond", new Location(template, x * 0.5, 65, z * 0.5));
+        }
+        map.addGenerator("emerald", new Location(template, 0, 65, 0));
+        return map;
+    }
+
+    @Test
+    void gamesInManyArenasFinishAndReset() {
+        for (int round = 1; round <= ROUNDS; round++) {
+            playRound(round);
+            assertArenasReset(round);
+        }
+
+        int wins = 0;
+        int games = 0;
+        int respawns = 0;
+        for (SimPlayer player : players) {
+            PlayerStats playerStats = plugin.getStatsManager().getStats(player);
+            wins += playerStats.getWins();
+            games += playerStats.getGamesPlayed();
+            respawns += player.getRespawns();
+        }
+        assertEquals(ARENAS * ROUNDS, wins, "every game should have exactly one winner");
+        assertEquals(ARENAS * TEAMS * ROUNDS, games, "every player should have played every round");
+        assertEquals(ARENAS * ROUNDS, respawns, "every kill before the beds were gone should respawn");
+
+        String summary = String.format("Simulated %d arenas, %d players, %d rounds: %s",
+                ARENAS, players.size(), ROUNDS, stats.summary());
+        plugin.getLogger().info(summary);
+        // Wall clock time depends on the machine, so it's a report unless a budget was asked for
+        if (MAX_AVERAGE_TICK_MILLIS != null) {
+            assertTrue(stats.getAverageMillis() < Double.parseDouble(MAX_AVERAGE_TICK_MILLIS), summary);
+        }
+    }
+
+    private void playRound(int round) {
+        Deque<SimPlayer> joining = new ArrayDeque<>();
+        for (SimPlayer player : players) {
+            if (!player.isOnline()) {
+                player.setOnline(true);
+                server.getPluginManager().callEvent(new PlayerJoinEvent(player, ""));
+            }
+            joining.add(player);
+        }
+
+        Set<Arena> started = new HashSet<>();
+        Map<Arena, Integer> scriptedSecond = new HashMap<>();
+        for (int tick = 0; !joining.isEmpty() || !isRoundOver(started); tick++) {
+            assertTrue(tick < MAX_ROUND_TICKS, "round " + round + " did not finish within " + MAX_ROUND_TICKS
+                    + " ticks, " + started.size() + " of " + ARENAS + " arenas started");
+
+            stats.measure(() -> {
+                for (int i = 0; i < JOINS_PER_TICK && !joining.isEmpty(); i++) {
+                    plugin.getGameManager().joinGame(joining.poll(), GameMode.SOLO);
+                }
+
+                for (Arena arena : plugin.getArenaManager().getArenas()) {
+                    if (arena.getState() != ArenaState.RUNNING) {
+                        continue;
+                    }
+                    started.add(arena);
+
+                    // Each arena is scripted once per game second, right after the game itself ticked
+                    Integer last = scriptedSecond.put(arena, arena.getGameTimer());
+                    if (last == null || last != arena.getGameTimer()) {
+                        scriptSecond(arena, arena.getGameTimer());
+                    }
+                }
+
+                server.getScheduler().performOneTick();
+            });
+        }
+    }
+
+    private boolean isRoundOver(Set<Arena> started) {
+        if (started.size() < ARENAS || plugin.getGameManager().getTeleportScheduler().getQueueSize() > 0) {
+            return false;
+        }
+        for (Arena arena : plugin.getArenaManager().getArenas()) {
+            if (arena.getState() != ArenaState.WAITING) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void scriptSecond(Arena arena, int second) {
+        List<SimPlayer> alive = getAlivePlayers(arena);
+        if (alive.size() < 2) {
+            return;
+        }
+
+        if (second == FIGHT_SECOND) {
+            // Beds are still up, the victim comes back after the respawn timer
+            kill(alive.get(0), alive.get(1));
+        } else if (second == QUIT_SECOND) {
+            SimPlayer leaving = alive.get(alive.size() - 1);
+            server.getPluginManager().callEvent(new PlayerQuitEvent(leaving, ""));
+            leaving.setOnline(false);
+        } else if (second == GRIEF_SECOND) {
+            // Only blocks placed during the game can be broken, the map itself is protected
+            SimPlayer player = alive.get(0);
+            Location location = player.getLocation();
+            if (arena.isInArena(location)) {
+                Block ground = location.getWorld().getBlockAt(location.getBlockX(), location.getBlockY() - 1,
+                        location.getBlockZ());
+                BlockBreakEvent event = new BlockBreakEvent(ground, player);
+                server.getPluginManager().callEvent(event);
+                assertTrue(event.isCancelled(), "map blocks must not be breakable in " + arena.getName());
+
+                // Water isn't placed like a block, the rollback still has to take it out again
+                Block target = ground.getRelative(BlockFace.UP);
+                Material original = target.getType();
+                PlayerBucketEmptyEvent bucket = new PlayerBucketEmptyEvent(player, target, ground, BlockFace.UP,
+                        Material.WATER_BUCKET, new ItemStack(Material.WATER_BUCKET));
+                server.getPluginManager().callEvent(bucket);
+                assertFalse(bucket.isCancelled(), "buckets should be usable in " + arena.getName());
+                target.setType(Material.WATER);
+                emptiedBuckets.put(target.getLocation(), original);
+            }
+        } else if (second > BED_DESTRUCTION_SECOND) {
+            kill(alive.get(0), alive.get(1));
+        }
+    }
+
+    private List<SimPlayer> getAlivePlayers(Arena arena) {
+        List<SimPlayer> alive = new ArrayList<>();
+        for (Player player : arena.getPlayers()) {
+            BedwarsTeam team = arena.getPlayerTeam(player);
+            if (team != null && !team.isEliminated()) {
+                alive.add((SimPlayer) player);
+            }
+        }
+        alive.sort(Comparator.comparing(Player::getName));
+        return alive;
+    }
+
+    private void kill(SimPlayer victim, SimPlayer killer) {
+        victim.setKiller(killer);
+        server.getPluginManager().callEvent(new PlayerDeathEvent(victim, new ArrayList<>(), 0, null));
+        victim.setKiller(null);
+    }
+
+    private void assertArenasReset(int round) {
+        for (Arena arena : plugin.getArenaManager().getArenas()) {
+            assertEquals(ArenaState.WAITING, arena.getState(), arena.getName() + " after round " + round);
+            assertTrue(arena.getPlayers().isEmpty(), arena.getName() + " still has players after round " + round);
+            assertNull(arena.getJournal(), arena.getName() + " kept its block journal after round " + round);
+        }
+        for (SimWorld world : arenaWorlds) {
+            assertTrue(world.getDrops().isEmpty(), "generator drops left in " + world.getName() + " after round " + round);
+        }
+        assertFalse(emptiedBuckets.isEmpty(), "no bucket was emptied in round " + round);
+        for (Map.Entry<Location, Material> entry : emptiedBuckets.entrySet()) {
+            assertEquals(entry.getValue(), entry.getKey().getBlock().getType(),
+                    "bucket placement at " + entry.getKey() + " was not rolled back after round " + round);
+        }
+        emptiedBuckets.clear();
+        for (SimPlayer player : players) {
+            assertFalse(plugin.getArenaManager().isInArena(player), player.getName() + " is still in an arena");
+            assertFalse(player.isGlowing(), player.getName() + " is still glowing");
+            if (player.isOnline()) {
+                assertEquals("world", player.getWorld().getName(), player.getName() + " was not sent back to the lobby");
+            }
+        }
+
+        assertTrue(plugin.getGameManager().getActiveGames().isEmpty(), "games still running after round " + round);
+        assertEquals(0, plugin.getGameManager().getGeneratorEngine().getActiveCount(),
+                "generators still registered after round " + round);
+    }
+}
@@ -0,0 +1,76 @@
+package com.guythatlives.bedwarsg.simulation;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import org.bukkit.entity.Player;
+
+/**
+ * Player that can be killed by another player and quit, and only counts its chat messages so thousands of them
+ * don't pile up in memory and skew the allocation figures.
+ */
+class SimPlayer extends PlayerMock {
+
+    private final Player.Spigot spigot;
+    private Player killer;
+    private boolean glowing;
+    private boolean online;
+    private int messages;
+    private int respawns;
+
+    SimPlayer(ServerMock server, String name) {
+        super(server, name);
+        this.online = true;
+        this.spigot = new Player.Spigot() {
+            @Override
+            public void respawn() {
+                respawns++;
+            }
+        };
+    }
+
+    void setKiller(Player killer) {
+        this.killer = killer;
+    }
+
+    @Override
+    public Player getKiller() {
+        return killer;
+    }
+
+    @Override
+    public void setGlowing(boolean glowing) {
+        this.glowing = glowing;
+    }
+
+    @Override
+    public boolean isGlowing() {
+        return glowing;
+    }
+
+    void setOnline(boolean online) {
+        this.online = online;
+    }
+
+    @Override
+    public boolean isOnline() {
+        return online;
+    }
+
+    @Override
+    public void sendMessage(String message) {
+        messages++;
+    }
+
+    int getMessages() {
+        return messages;
+    }
+
+    @Override
+    public Player.Spigot spigot() {
+        return spigot;
+    }
+
+    int getRespawns() {
+        return respawns;
+    }
+}
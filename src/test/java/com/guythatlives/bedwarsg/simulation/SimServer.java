@@ -0,0 +1,20 @@
+package com.guythatlives.bedwarsg.simulation;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+
+import java.io.File;
+
+class SimServer extends ServerMock {
+
+    private final File worldContainer;
+
+    SimServer(File worldContainer) {
+        this.worldContainer = worldContainer;
+    }
+
+    @Override
+    public File getWorldContainer() {
+        // The world manager probes and cleans this folder on startup, keep it out of the working directory
+        return worldContainer;
+    }
+}
@@ -0,0 +1,140 @@
+package com.guythatlives.bedwarsg.simulation;
+
+import be.seeseemelk.mockbukkit.WorldMock;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.inventory.ItemStack;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * World where every chunk counts as loaded and dropped items are tracked, so generators and entity sweeps run
+ * the same code paths as on a live server.
+ */
+class SimWorld extends WorldMock {
+
+    private final List<Item> drops;
+
+    SimWorld(String name) {
+        setName(name);
+        this.drops = new ArrayList<>();
+    }
+
+    @Override
+    public boolean isChunkLoaded(int x, int z) {
+        return true;
+    }
+
+    @Override
+    public Chunk getChunkAt(int x, int z) {
+        return (Chunk) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Chunk.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getX":
+                            return x;
+                        case "getZ":
+                            return z;
+                        case "getWorld":
+                            return this;
+                        case "isLoaded":
+                            return true;
+                        case "getEntities":
+                            return getEntitiesIn(x, z);
+                        case "hashCode":
+                            return 31 * x + z;
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "SimChunk[" + getName() + " " + x + "," + z + "]";
+                        default:
+                            throw new UnsupportedOperationException("Chunk." + method.getName());
+                    }
+                });
+    }
+
+    @Override
+    public Item dropItem(Location location, ItemStack item) {
+        Item drop = SimItem.create(this, location, item);
+        drops.add(drop);
+        return drop;
+    }
+
+    private Entity[] getEntitiesIn(int chunkX, int chunkZ) {
+        List<Entity> entities = new ArrayList<>();
+        for (Item drop : drops) {
+            Location location = drop.getLocation();
+            if (location.getBlockX() >> 4 == chunkX && location.getBlockZ() >> 4 == chunkZ) {
+                entities.add(drop);
+            }
+        }
+        return entities.toArray(new Entity[0]);
+    }
+
+    void removeDrop(Item drop) {
+        drops.remove(drop);
+    }
+
+    List<Item> getDrops() {
+        return drops;
+    }
+
+    private static final class SimItem {
+
+        private final SimWorld world;
+        private final UUID uuid;
+        private final Location location;
+        private ItemStack stack;
+        private boolean removed;
+
+        private SimItem(SimWorld world, Location location, ItemStack stack) {
+            this.world = world;
+            this.uuid = UUID.randomUUID();
+            this.location = location.clone();
+            this.stack = stack;
+        }
+
+        static Item create(SimWorld world, Location location, ItemStack stack) {
+            SimItem item = new SimItem(world, location, stack);
+            return (Item) Proxy.newProxyInstance(SimWorld.class.getClassLoader(), new Class<?>[]{Item.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getUniqueId":
+                                return item.uuid;
+                            case "getLocation":
+                                return item.location.clone();
+                            case "getWorld":
+                                return item.world;
+                            case "getItemStack":
+                                return item.stack;
+                            case "setItemStack":
+                                item.stack = (ItemStack) args[0];
+                                return null;
+                            case "setVelocity":
+                            case "setTicksLived":
+                                return null;
+                            case "isValid":
+                                return !item.removed;
+                            case "isDead":
+                                return item.removed;
+                            case "remove":
+                                item.removed = true;
+                                item.world.removeDrop((Item) proxy);
+                                return null;
+                            case "hashCode":
+                                return item.uuid.hashCode();
+                            case "equals":
+                                return proxy == args[0];
+                            case "toString":
+                                return "SimItem[" + item.stack + "]";
+                            default:
+                                throw new UnsupportedOperationException("Item." + method.getName());
+                        }
+                    });
+        }
+    }
+}
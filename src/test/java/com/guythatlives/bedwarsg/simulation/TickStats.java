@@ -0,0 +1,99 @@
+package com.guythatlives.bedwarsg.simulation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Main thread time and allocations of every simulated tick.
+ */
+class TickStats {
+
+    private final com.sun.management.ThreadMXBean allocations;
+    private long[] nanos;
+    private long[] bytes;
+    private int size;
+
+    TickStats() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        // Allocation counters are a HotSpot extension, other VMs only get timings
+        if (threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+            this.allocations = (com.sun.management.ThreadMXBean) threads;
+            this.allocations.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            this.allocations = null;
+        }
+        this.nanos = new long[1024];
+        this.bytes = new long[1024];
+    }
+
+    void measure(Runnable tick) {
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = allocations != null ? allocations.getThreadAllocatedBytes(thread) : 0;
+        long start = System.nanoTime();
+
+        tick.run();
+
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocations != null ? allocations.getThreadAllocatedBytes(thread) - allocatedBefore : 0;
+        if (size == nanos.length) {
+            nanos = Arrays.copyOf(nanos, size * 2);
+            bytes = Arrays.copyOf(bytes, size * 2);
+        }
+        nanos[size] = elapsed;
+        bytes[size] = allocated;
+        size++;
+    }
+
+    int getTicks() {
+        return size;
+    }
+
+    double getAverageMillis() {
+        return average(nanos) / 1_000_000.0;
+    }
+
+    double getPercentileMillis(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(nanos, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))] / 1_000_000.0;
+    }
+
+    double getAverageKilobytes() {
+        return average(bytes) / 1024.0;
+    }
+
+    double getMaxKilobytes() {
+        long max = 0;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, bytes[i]);
+        }
+        return max / 1024.0;
+    }
+
+    private double average(long[] values) {
+        if (size == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        return sum / (double) size;
+    }
+
+    String summary() {
+        String timing = String.format("%d ticks, %.3f ms average, %.3f ms p99, %.3f ms max",
+                size, getAverageMillis(), getPercentileMillis(99), getPercentileMillis(100));
+        if (allocations == null) {
+            return timing;
+        }
+        return timing + String.format(", %.1f KB allocated per tick on average, %.1f KB max",
+                getAverageKilobytes(), getMaxKilobytes());
+    }
+}